@@ -0,0 +1,447 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
+
+/**
+ * JMH基准的操作
+ * <p>解析器的类都在默认包中，JMH基准不能放在默认包，因此jmh目录下otdr.jmh包中的基准通过反射调用这里的方法，
+ * 按名称取用操作。只在jmh profile中编译，不进入发布的jar</p>
+ *
+ * @author coderyong
+ */
+public final class BenchmarkOperations {
+
+    private static final int SYNTHETIC_POINTS = 256 * 1024;
+    /** 合成曲线的地标数 */
+    private static final int SYNTHETIC_LANDMARKS = 8;
+    /** 数值读取基准的缓冲区大小 */
+    private static final int NUMERIC_BYTES = 64 * 1024;
+    /** 校验和基准的数据大小 */
+    private static final int CHECKSUM_BYTES = 1024 * 1024;
+
+    private BenchmarkOperations() {
+    }
+
+    /**
+     * 整个文件读取和各区块解码的基准，按名称排列
+     *
+     * @param sample 样本文件字节内容，另外生成{@value #SYNTHETIC_POINTS}点的合成曲线
+     * @return 基准名称及操作
+     */
+    public static Map<String, Callable<Object>> parseOperations(byte[] sample) {
+        byte[] synthetic = generatedTrace(SYNTHETIC_POINTS, SYNTHETIC_POINTS);
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        readBenchmarks(operations, "test.sor", sample);
+        readBenchmarks(operations, "synthetic", synthetic);
+        decoderBenchmarks(operations, "test.sor", sample);
+        decoderBenchmarks(operations, "synthetic", synthetic);
+        return operations;
+    }
+
+    /**
+     * 解析之后的分析、导出、缓存和注册表等操作的基准，按名称排列
+     *
+     * @param sample 样本文件字节内容，另外生成{@value #SYNTHETIC_POINTS}点的合成曲线
+     * @return 基准名称及操作
+     */
+    public static Map<String, Callable<Object>> analysisOperations(byte[] sample) {
+        byte[] synthetic = generatedTrace(SYNTHETIC_POINTS, SYNTHETIC_POINTS);
+        Map<String, Callable<Object>> operations = new LinkedHashMap<>();
+        analysisBenchmarks(operations, "test.sor", sample);
+        analysisBenchmarks(operations, "synthetic", synthetic);
+        distanceBenchmarks(operations, sample);
+        byte[] baseline = generatedTrace(64 * 1024, 1);
+        comparisonBenchmarks(operations, "test.sor", sample, sample);
+        comparisonBenchmarks(operations, "synthetic", baseline, remeasured(baseline, generatedTrace(64 * 1024, 2)));
+        cacheBenchmarks(operations, sample);
+        registryBenchmarks(operations);
+        checksumBenchmarks(operations);
+        SorGenerator generator = new SorGenerator(1).setPoints(SYNTHETIC_POINTS).setEvents(500)
+                .setLandmarks(200).setPulses(3).setVendorBlocks(2, 4096);
+        operations.put("SorGenerator.generate", () -> generator.generate(0));
+        return operations;
+    }
+
+    /**
+     * 整个文件的读取
+     */
+    private static void readBenchmarks(Map<String, Callable<Object>> operations, String name, byte[] content) {
+        operations.put("read(byte[]) " + name, () -> OTDRAnalysis.read(content));
+        operations.put("read(InputStream) " + name, () -> OTDRAnalysis.read(new ByteArrayInputStream(content)));
+        operations.put("SorParser.parse " + name, () -> SorParser.parse(content));
+        SorFile file = SorParser.parse(content);
+        operations.put("toMaps " + name, () -> OTDRAnalysis.toMaps(file));
+        operations.put("verifyChecksum " + name, () -> SorParser.verify(ByteBuffer.wrap(content)));
+    }
+
+    /**
+     * 各区块解码，游标预先定位到区块起始位置
+     */
+    private static void decoderBenchmarks(Map<String, Callable<Object>> operations, String name, byte[] content) {
+        SorMap map = SorParser.parse(content).getMap();
+        SorCursor cursor = new SorCursor(content);
+        for (SorBlock block : map.getBlocks()) {
+            int offset = block.getOffset();
+            int length = block.getLength();
+            Callable<Object> decoder;
+            switch (block.type()) {
+                case SorBlockRegistry.GEN_PARAMS:
+                    decoder = () -> new GenParams(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.SUP_PARAMS:
+                    decoder = () -> new SupParams(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.FXD_PARAMS:
+                    decoder = () -> new FxdParams(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.KEY_EVENTS:
+                    decoder = () -> new KeyEvents(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.LNK_PARAMS:
+                    decoder = () -> new LnkParams(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.DATA_PTS:
+                    decoder = () -> new DataPoints(cursor.range(offset, length));
+                    break;
+                case SorBlockRegistry.CHECKSUM:
+                    decoder = () -> new Checksum(cursor.range(offset, length));
+                    break;
+                default:
+                    continue;
+            }
+            operations.put("decode " + block.getBlockId() + " " + name, decoder);
+        }
+    }
+
+    /**
+     * 事件检测、流式解析和导出
+     */
+    private static void analysisBenchmarks(Map<String, Callable<Object>> operations, String name, byte[] content) {
+        SorFile file = SorParser.parse(content);
+        EventDetector detector = new EventDetector();
+        operations.put("EventDetector.detect " + name, () -> detector.detect(file));
+
+        ParseHistogram histogram = new ParseHistogram();
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        operations.put("SorParser.parse NONE " + name, () -> SorParser.parse(buffer, null, ParseListener.NONE));
+        operations.put("SorParser.parse histogram " + name, () -> SorParser.parse(buffer, null, histogram));
+
+        SorStreamParser streamParser = new SorStreamParser();
+        SorHandler handler = new SorHandler() {
+        };
+        operations.put("read stream + parse " + name,
+                () -> SorParser.parse(readFully(new ByteArrayInputStream(content))));
+        operations.put("SorStreamParser " + name, () -> {
+            streamParser.parse(new ByteArrayInputStream(content), handler);
+            return handler;
+        });
+        operations.put("SorReader until KeyEvents " + name, () -> keyEventsOnly(new ByteArrayInputStream(content)));
+
+        SorJsonExporter json = new SorJsonExporter();
+        SorCsvExporter csv = new SorCsvExporter();
+        CountingWriter writer = new CountingWriter();
+        operations.put("map toString " + name, () -> {
+            writer.write(OTDRAnalysis.read(content).toString());
+            return writer.count;
+        });
+        operations.put("SorJsonExporter " + name, () -> {
+            json.export(new ByteArrayInputStream(content), writer);
+            return writer.count;
+        });
+        operations.put("SorCsvExporter.exportTrace " + name, () -> {
+            csv.exportTrace(new ByteArrayInputStream(content), writer);
+            return writer.count;
+        });
+    }
+
+    /**
+     * 从Map中逐个取出装箱值换算事件距离与DistanceAxis批量换算
+     */
+    @SuppressWarnings("unchecked")
+    private static void distanceBenchmarks(Map<String, Callable<Object>> operations, byte[] sample) {
+        Map<String, Object> fxd = null;
+        List<Map<String, Object>> events = null;
+        for (Map<String, Object> block : OTDRAnalysis.read(sample)) {
+            if ("FxdParams".equals(block.get("blockId"))) {
+                fxd = block;
+            } else if ("KeyEvents".equals(block.get("blockId"))) {
+                events = (List<Map<String, Object>>) block.get("events");
+            }
+        }
+        Map<String, Object> fxdBlock = fxd;
+        List<Map<String, Object>> eventMaps = events;
+        operations.put("event distances map test.sor", () -> {
+            double sum = 0;
+            float groupIndex = (Float) fxdBlock.get("groupIndex");
+            for (Map<String, Object> event : eventMaps) {
+                sum += (Integer) event.get("eventPropagationTime") * 0.299792458 / 10000 / groupIndex;
+                for (int location : (int[]) event.get("markerLocations")) {
+                    sum += location * 0.299792458 / 10000 / groupIndex;
+                }
+            }
+            return sum;
+        });
+        SorFile file = SorParser.parse(sample);
+        KeyEvents keyEvents = file.getKeyEvents();
+        operations.put("event distances DistanceAxis test.sor", () -> {
+            DistanceAxis axis = DistanceAxis.of(file);
+            return axis.getEventDistances(keyEvents)[0] + axis.getMarkerDistances(keyEvents)[0];
+        });
+    }
+
+    /**
+     * 基准曲线比较
+     */
+    private static void comparisonBenchmarks(Map<String, Callable<Object>> operations, String name,
+                                             byte[] baseline, byte[] current) {
+        SorFile baselineFile = SorParser.parse(baseline);
+        SorFile currentFile = SorParser.parse(current);
+        TraceComparator comparator = new TraceComparator(0.5F, 8);
+        operations.put("TraceComparator.compare " + name, () -> comparator.compare(baselineFile, currentFile));
+    }
+
+    /**
+     * 缓存命中时的读取
+     */
+    private static void cacheBenchmarks(Map<String, Callable<Object>> operations, byte[] sample) {
+        SorCache cache = new SorCache(64L * 1024 * 1024);
+        cache.parse(sample);
+        operations.put("SorCache.parse hit test.sor", () -> cache.parse(sample));
+        operations.put("SorCache.read hit test.sor", () -> cache.read(sample));
+    }
+
+    /**
+     * 只解析和解析后访问全部区块值，注册的厂商区块解码器只在访问时运行
+     */
+    private static void registryBenchmarks(Map<String, Callable<Object>> operations) {
+        byte[] content = new SorGenerator(1).setPoints(16 * 1024).setVendorBlocks(4, 64 * 1024).generate(0);
+        //模拟较重的厂商区块解码：逐字节累加
+        SorBlockRegistry registry = new SorBlockRegistry();
+        for (int i = 1; i <= 4; i++) {
+            registry.register("Vendor" + i, (cursor, block) -> {
+                long sum = 0;
+                for (int n = cursor.remaining(); n > 0; n--) {
+                    sum += cursor.u8();
+                }
+                return sum;
+            });
+        }
+        operations.put("registry parse vendor", () -> SorParser.parse(ByteBuffer.wrap(content), null, registry));
+        operations.put("registry decode all vendor", () -> {
+            SorFile file = SorParser.parse(ByteBuffer.wrap(content), null, registry);
+            long sum = 0;
+            for (SorBlock block : file.getMap().getBlocks()) {
+                Object value = file.getValue(block);
+                sum += value == null ? 0 : value.hashCode();
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * 堆内和直接缓冲区的校验和计算
+     */
+    private static void checksumBenchmarks(Map<String, Callable<Object>> operations) {
+        byte[] bytes = new byte[CHECKSUM_BYTES];
+        new Random(1).nextBytes(bytes);
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        operations.put("Crc16 heap 1MB", () -> Crc16.compute(heap, 0, CHECKSUM_BYTES));
+        operations.put("Crc16 direct 1MB", () -> Crc16.compute(direct, 0, CHECKSUM_BYTES));
+    }
+
+    /**
+     * 游标的数值读取，每次操作读满64KB缓冲区
+     *
+     * @return 基准名称及操作
+     */
+    public static Map<String, LongSupplier> numericOperations() {
+        byte[] bytes = new byte[NUMERIC_BYTES];
+        new Random(1).nextBytes(bytes);
+        for (int i = 0; i < bytes.length; i += 64) {
+            //每64字节放一个以0结尾的字符串
+            bytes[i + 15] = 0;
+        }
+        SorCursor cursor = new SorCursor(bytes);
+        ByteBuffer direct = ByteBuffer.allocateDirect(NUMERIC_BYTES);
+        direct.put(bytes).flip();
+        SorCursor directCursor = new SorCursor(direct);
+        short[] shorts = new short[NUMERIC_BYTES / 2];
+
+        Map<String, LongSupplier> operations = new LinkedHashMap<>();
+        operations.put("SorCursor.u8", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES; i++) {
+                sum += cursor.u8();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.u16", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 2; i++) {
+                sum += cursor.u16();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.u16 direct", () -> {
+            directCursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 2; i++) {
+                sum += directCursor.u16();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.i32", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 4; i++) {
+                sum += cursor.i32();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.u32", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 4; i++) {
+                sum += cursor.u32();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.i64", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 8; i++) {
+                sum += cursor.i64();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.u16s", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            cursor.u16s(shorts, 0, shorts.length);
+            return shorts[shorts.length - 1];
+        });
+        operations.put("SorCursor.fixedString(2)", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 64; i++) {
+                sum += cursor.position(i * 64).fixedString(2).length();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.zString", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 64; i++) {
+                sum += cursor.position(i * 64).zString().length();
+            }
+            return sum;
+        });
+        operations.put("SorCursor.skipZString", () -> {
+            cursor.range(0, NUMERIC_BYTES);
+            long sum = 0;
+            for (int i = 0; i < NUMERIC_BYTES / 64; i++) {
+                sum += cursor.position(i * 64).skipZString().position();
+            }
+            return sum;
+        });
+        return operations;
+    }
+
+    /**
+     * 生成指定点数的合成曲线
+     * <p>由{@link SorGenerator}生成：包含事件和地标，曲线有衰减、事件台阶和反射峰，校验和有效</p>
+     *
+     * @param points 数据点数
+     * @param seed   随机数种子
+     * @return 文件字节内容
+     */
+    static byte[] generatedTrace(int points, long seed) {
+        return new SorGenerator(seed).setPoints(points).setLandmarks(SYNTHETIC_LANDMARKS).generate(0);
+    }
+
+    /**
+     * 同一光纤的另一次测量：曲线和事件来自trace，光纤信息与baseline相同
+     */
+    static byte[] remeasured(byte[] baseline, byte[] trace) {
+        GenParams gen = SorParser.parse(baseline).getGenParams();
+        return new SorWriter(SorParser.parse(trace)).setGenParams(gen).toByteArray();
+    }
+
+    /**
+     * 拉取到KeyEvents区块结束后停止，其余区块跳过不解码
+     *
+     * @return 事件数
+     */
+    private static int keyEventsOnly(InputStream input) throws IOException {
+        SorReader reader = new SorReader(input);
+        int events = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case BLOCK_START:
+                    if (reader.getBlock().type() != SorBlockRegistry.KEY_EVENTS) {
+                        reader.skipBlock();
+                    }
+                    break;
+                case KEY_EVENT:
+                    events++;
+                    break;
+                case BLOCK_END:
+                    if (reader.getBlock().type() == SorBlockRegistry.KEY_EVENTS) {
+                        return events;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return events;
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 只统计字符数的输出
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String s) {
+            count += s.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
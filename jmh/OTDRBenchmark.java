@@ -0,0 +1,452 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jdk.jfr.Recording;
+
+/**
+ * OTDR解析的整体场景对比：解析结果常驻内存、JFR记录开销、目录扫描、批量解析、目录监听和曲线归档
+ * <p>单个操作的耗时和分配由jmh目录下的JMH基准测量，这里只保留JMH不便表达的场景。
+ * 运行方式：mvn -Pjmh package后java -cp target/benchmarks.jar OTDRBenchmark [文件名]，默认使用test.sor</p>
+ *
+ * @author coderyong
+ */
+public class OTDRBenchmark {
+
+    private static final int SYNTHETIC_POINTS = 256 * 1024;
+    private static final int RETAINED_COPIES = 20;
+    private static final int CORPUS_FILES = 2000;
+    private static final int ARCHIVE_TRACES = 10_000;
+    private static final int ARCHIVE_POINTS = 8 * 1024;
+    /** 归档测试中的光纤数，每条光纤按天测量 */
+    private static final int ARCHIVE_FIBERS = 100;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        byte[] sample = Files.readAllBytes(Paths.get(args.length > 0 ? args[0] : "test.sor"));
+        byte[] synthetic = BenchmarkOperations.generatedTrace(SYNTHETIC_POINTS, SYNTHETIC_POINTS);
+
+        System.out.println("================= content memory =================");
+        compareContent("test.sor", sample);
+        compareContent("synthetic " + SYNTHETIC_POINTS + " points", synthetic);
+
+        System.out.println("================= flight recorder =================");
+        flightRecorder(sample);
+
+        Path corpus = createCorpus(sample, BenchmarkOperations.generatedTrace(64 * 1024, 64 * 1024), CORPUS_FILES);
+        try {
+            System.out.println("================= directory scan =================");
+            directoryScan(corpus);
+            System.out.println("================= batch parse =================");
+            batchParse(corpus);
+            System.out.println("================= directory watcher =================");
+            directoryWatcher(sample);
+        } finally {
+            deleteCorpus(corpus);
+        }
+
+        System.out.println("================= archive =================");
+        archive();
+    }
+
+    /**
+     * 对比曲线归档与逐个gzip压缩的SOR文件的大小和解码速度
+     */
+    private static void archive() throws IOException {
+        Path file = Files.createTempFile("otdr-archive", ".sora");
+        try {
+            List<byte[]> gzipped = new ArrayList<>(ARCHIVE_TRACES);
+            long sorBytes = 0;
+            long gzipBytes = 0;
+            int maxLength = 0;
+            try (SorArchiveWriter writer = new SorArchiveWriter(file)) {
+                for (int i = 0; i < ARCHIVE_TRACES; i++) {
+                    byte[] trace = fleetTrace(i);
+                    maxLength = Math.max(maxLength, trace.length);
+                    byte[] compressed = gzip(trace);
+                    sorBytes += trace.length;
+                    gzipBytes += compressed.length;
+                    gzipped.add(compressed);
+                    writer.add(SorParser.parse(trace));
+                }
+            }
+            long archiveBytes = Files.size(file);
+            System.out.printf("%,d traces x %,d points, %d fibers%n", ARCHIVE_TRACES, ARCHIVE_POINTS, ARCHIVE_FIBERS);
+            System.out.printf("    sor     : %,14d B%n", sorBytes);
+            System.out.printf("    sor.gz  : %,14d B%n", gzipBytes);
+            System.out.printf("    archive : %,14d B (%.1f%% of sor.gz)%n", archiveBytes, archiveBytes * 100D / gzipBytes);
+
+            SorArchiveReader reader = new SorArchiveReader(file);
+            byte[] buffer = new byte[maxLength];
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                long gzipPoints = 0;
+                for (byte[] compressed : gzipped) {
+                    int length = gunzip(compressed, buffer);
+                    gzipPoints += SorParser.parse(ByteBuffer.wrap(buffer, 0, length)).getDataPoints().size();
+                }
+                long gzipNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long archivePoints = 0;
+                for (int i = 0; i < reader.size(); i++) {
+                    archivePoints += reader.get(i).getDataPoints().size();
+                }
+                long archiveNanos = System.nanoTime() - start;
+                if (gzipPoints != archivePoints) {
+                    throw new IllegalStateException("archive mismatch");
+                }
+                System.out.printf("    sor.gz decode  : %,10.0f traces/s%n", gzipped.size() * 1e9 / gzipNanos);
+                System.out.printf("    archive decode : %,10.0f traces/s%n", reader.size() * 1e9 / archiveNanos);
+            }
+
+            //抽查解码结果
+            for (int i = 0; i < ARCHIVE_TRACES; i += 997) {
+                int length = gunzip(gzipped.get(i), buffer);
+                DataPoints expected = SorParser.parse(ByteBuffer.wrap(buffer, 0, length)).getDataPoints();
+                if (!Arrays.equals(expected.getRawSamples(), reader.get(i).getDataPoints().getRawSamples())) {
+                    throw new IllegalStateException("archive mismatch at trace " + i);
+                }
+            }
+            ArchivedTrace first = reader.get(0);
+            int[] traces = reader.find(first.getCableId(), first.getFiberId(), first.getWavelength());
+            System.out.println("    fiber " + first.getFiberId() + " : " + traces.length + " traces, last "
+                    + reader.get(traces[traces.length - 1]));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * 生成一条光纤的某次测量：按序号分配光纤编号，测量时间按天递增，噪声各不相同
+     *
+     * @param index 测量序号
+     * @return 文件字节内容
+     */
+    private static byte[] fleetTrace(int index) {
+        byte[] trace = BenchmarkOperations.generatedTrace(ARCHIVE_POINTS, index);
+        SorBlock fxd = SorParser.parse(trace).getMap().find("FxdParams");
+        ByteBuffer.wrap(trace).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(fxd.getOffset() + "FxdParams".length() + 1, 1500000000 + index / ARCHIVE_FIBERS * 86400);
+        SorFile file = SorParser.parse(trace);
+        GenParams gen = file.getGenParams().toBuilder()
+                .setCableId("C-1")
+                .setFiberId("F-" + index % ARCHIVE_FIBERS)
+                .setWavelength(1550)
+                .build();
+        return new SorWriter(file).setGenParams(gen).toByteArray();
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static int gunzip(byte[] compressed, byte[] buffer) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            int length = 0;
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * 对比未记录、记录(默认阈值)和记录全部事件时的解析耗时
+     *
+     * @param sample 样本文件字节内容
+     */
+    private static void flightRecorder(byte[] sample) throws IOException {
+        int rounds = 50_000;
+        String[] events = {"otdr.FileParsed", "otdr.BlockDecoded", "otdr.ChecksumVerified"};
+        for (int round = 0; round < 3; round++) {
+            long offNanos = parseAndVerify(sample, rounds);
+            long thresholdNanos;
+            try (Recording recording = new Recording()) {
+                for (String event : events) {
+                    recording.enable(event);
+                }
+                recording.start();
+                thresholdNanos = parseAndVerify(sample, rounds);
+            }
+            long allNanos;
+            try (Recording recording = new Recording()) {
+                for (String event : events) {
+                    recording.enable(event).withoutThreshold();
+                }
+                recording.start();
+                allNanos = parseAndVerify(sample, rounds);
+            }
+            System.out.printf("    recording off %.2f us/file, on (default thresholds) %.2f us/file, "
+                            + "on (all events) %.2f us/file%n",
+                    offNanos / 1e3 / rounds, thresholdNanos / 1e3 / rounds, allNanos / 1e3 / rounds);
+        }
+    }
+
+    private static long parseAndVerify(byte[] content, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            SorParser.parse(content).verifyChecksum();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 对比文件头快速扫描与完整读取的目录处理速度
+     *
+     * @param directory 测试目录
+     */
+    private static void directoryScan(Path directory) throws IOException {
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            final long[] count = new long[1];
+            SorScanner.scanDirectory(directory, header -> count[0]++);
+            long scanned = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int files = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.sor")) {
+                for (Path path : stream) {
+                    OTDRAnalysis.read(path.toString());
+                    files++;
+                }
+            }
+            long read = System.nanoTime() - start;
+            System.out.printf("    SorScanner.scanDirectory : %,10.0f files/s%n", count[0] * 1e9 / scanned);
+            System.out.printf("    OTDRAnalysis.read        : %,10.0f files/s%n", files * 1e9 / read);
+        }
+    }
+
+    /**
+     * 不同并行度下的批量解析吞吐量
+     *
+     * @param directory 测试目录
+     */
+    private static void batchParse(Path directory) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        SorSink sink = new SorSink() {
+            @Override
+            public void onResult(Path path, SorFile file) {
+            }
+
+            @Override
+            public void onError(Path path, Exception error) {
+                error.printStackTrace();
+            }
+        };
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, cores)) {
+            try (SorBatchParser parser = new SorBatchParser(parallelism)) {
+                parser.parse(directory, sink);
+                System.out.printf("    parallelism %2d : %s%n", parallelism, parser.parse(directory, sink));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (parallelism == cores) {
+                break;
+            }
+        }
+        ParseHistogram histogram = new ParseHistogram();
+        try (SorBatchParser parser = new SorBatchParser(cores).setListener(histogram)) {
+            System.out.printf("    instrumented %2d : %s%n", cores, parser.parse(directory, sink));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        System.out.print(histogram);
+    }
+
+    /**
+     * 创建测试目录
+     *
+     * @param small 小文件字节内容
+     * @param large 大文件字节内容
+     * @param files 文件数，大小文件各占一半
+     * @return 测试目录
+     */
+    private static Path createCorpus(byte[] small, byte[] large, int files) throws IOException {
+        Path directory = Files.createTempDirectory("otdr-corpus");
+        long bytes = 0;
+        for (int i = 0; i < files; i++) {
+            byte[] content = i % 2 == 0 ? small : large;
+            Files.write(directory.resolve(String.format("trace-%06d.sor", i)), content);
+            bytes += content.length;
+        }
+        System.out.println("corpus: " + files + " files, " + bytes / 1024 / 1024 + " MB");
+        return directory;
+    }
+
+    /**
+     * 向监听目录突发写入文件，统计从文件写完到回调的延迟
+     *
+     * @param sample 样本文件字节内容
+     */
+    private static void directoryWatcher(byte[] sample) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("otdr-watch");
+        Map<Path, Long> written = new ConcurrentHashMap<>();
+        long[] latencies = new long[CORPUS_FILES];
+        AtomicLong delivered = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(CORPUS_FILES);
+        SorSink sink = new SorSink() {
+            @Override
+            public void onResult(Path path, SorFile file) {
+                long now = System.nanoTime();
+                Long start = written.get(path);
+                latencies[(int) delivered.getAndIncrement()] = start == null ? 0 : now - start;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Path path, Exception error) {
+                error.printStackTrace();
+                done.countDown();
+            }
+        };
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try (SorDirectoryWatcher watcher = new SorDirectoryWatcher(directory, sink, parallelism).start()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CORPUS_FILES; i++) {
+                Path path = directory.resolve(String.format("trace-%05d.sor", i));
+                //分两次写入，模拟仪器逐段写文件
+                Files.write(path, Arrays.copyOf(sample, sample.length / 2));
+                Files.write(path, sample);
+                written.put(path, System.nanoTime());
+            }
+            long writeNanos = System.nanoTime() - start;
+            if (!done.await(60, TimeUnit.SECONDS)) {
+                System.out.println("    timed out, " + done.getCount() + " files left");
+            }
+            long[] sorted = Arrays.copyOf(latencies, (int) delivered.get());
+            Arrays.sort(sorted);
+            System.out.printf("    %d files written in %.0f ms, latency p50 %.0f ms, p99 %.0f ms, max %.0f ms%n",
+                    CORPUS_FILES, writeNanos / 1e6, percentile(sorted, 0.5) / 1e6,
+                    percentile(sorted, 0.99) / 1e6, percentile(sorted, 1) / 1e6);
+            System.out.println("    " + watcher.getStats());
+        } finally {
+            deleteCorpus(directory);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * fraction)];
+    }
+
+    private static void deleteCorpus(Path directory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * 对比延迟生成content文本与全部生成content文本的内存占用
+     *
+     * @param name    输入名称
+     * @param content 文件字节内容
+     */
+    private static void compareContent(String name, byte[] content) {
+        //预热
+        for (int i = 0; i < 20; i++) {
+            materialize(OTDRAnalysis.read(content));
+        }
+        long lazyAllocated = allocatedBytes(content, false);
+        long eagerAllocated = allocatedBytes(content, true);
+        long lazyRetained = retainedBytes(content, false);
+        long eagerRetained = retainedBytes(content, true);
+
+        System.out.println(name + " (" + content.length + " bytes)");
+        System.out.printf("    lazy  : allocated %,12d B/file, retained %,12d B/file%n", lazyAllocated, lazyRetained);
+        System.out.printf("    eager : allocated %,12d B/file, retained %,12d B/file%n", eagerAllocated, eagerRetained);
+    }
+
+    /**
+     * 单次解析分配的字节数
+     *
+     * @param content 文件字节内容
+     * @param eager   是否生成全部content文本(原有行为)
+     * @return 分配字节数
+     */
+    private static long allocatedBytes(byte[] content, boolean eager) {
+        int rounds = 10;
+        long start = threadAllocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            List<Map<String, Object>> blocks = OTDRAnalysis.read(content);
+            if (eager) {
+                materialize(blocks);
+            }
+        }
+        return (threadAllocatedBytes() - start) / rounds;
+    }
+
+    /**
+     * 解析结果常驻内存的字节数
+     *
+     * @param content 文件字节内容
+     * @param eager   是否生成全部content文本(原有行为)
+     * @return 常驻字节数
+     */
+    private static long retainedBytes(byte[] content, boolean eager) {
+        List<Object> holder = new ArrayList<>();
+        long before = usedHeap();
+        for (int i = 0; i < RETAINED_COPIES; i++) {
+            //每份结果使用独立的字节内容，避免共享源缓冲区
+            List<Map<String, Object>> blocks = OTDRAnalysis.read(content.clone());
+            if (eager) {
+                materialize(blocks);
+            }
+            holder.add(blocks);
+        }
+        long after = usedHeap();
+        if (holder.isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / RETAINED_COPIES;
+    }
+
+    /**
+     * 按原有行为把content替换为文本
+     *
+     * @param blocks 区块集合信息
+     */
+    private static void materialize(List<Map<String, Object>> blocks) {
+        for (Map<String, Object> block : blocks) {
+            block.put("content", String.valueOf(block.get("content")));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long threadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,91 @@
+package otdr.jmh;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 解析之后的事件检测、流式解析、导出、曲线比较、缓存、注册表、校验和与合成文件生成的JMH基准
+ * <p>按名称取用BenchmarkOperations.analysisOperations中的操作，原因见{@link ParseBenchmark}</p>
+ *
+ * @author coderyong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({
+            "EventDetector.detect test.sor",
+            "SorParser.parse NONE test.sor",
+            "SorParser.parse histogram test.sor",
+            "read stream + parse test.sor",
+            "SorStreamParser test.sor",
+            "SorReader until KeyEvents test.sor",
+            "map toString test.sor",
+            "SorJsonExporter test.sor",
+            "SorCsvExporter.exportTrace test.sor",
+            "EventDetector.detect synthetic",
+            "SorParser.parse NONE synthetic",
+            "SorParser.parse histogram synthetic",
+            "read stream + parse synthetic",
+            "SorStreamParser synthetic",
+            "SorReader until KeyEvents synthetic",
+            "map toString synthetic",
+            "SorJsonExporter synthetic",
+            "SorCsvExporter.exportTrace synthetic",
+            "event distances map test.sor",
+            "event distances DistanceAxis test.sor",
+            "TraceComparator.compare test.sor",
+            "TraceComparator.compare synthetic",
+            "SorCache.parse hit test.sor",
+            "SorCache.read hit test.sor",
+            "registry parse vendor",
+            "registry decode all vendor",
+            "Crc16 heap 1MB",
+            "Crc16 direct 1MB",
+            "SorGenerator.generate"
+    })
+    public String operation;
+
+    /** 样本文件，相对于运行目录 */
+    @Param("test.sor")
+    public String file;
+
+    private Callable<Object> target;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get(file));
+        Map<String, Callable<Object>> operations = (Map<String, Callable<Object>>)
+                Class.forName("BenchmarkOperations").getMethod("analysisOperations", byte[].class)
+                        .invoke(null, (Object) sample);
+        target = operations.get(operation);
+        if (target == null) {
+            throw new IllegalArgumentException("unknown operation: " + operation + ", available: "
+                    + operations.keySet());
+        }
+    }
+
+    @Benchmark
+    public Object run() throws Exception {
+        return target.call();
+    }
+}
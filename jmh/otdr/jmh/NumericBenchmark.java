@@ -0,0 +1,64 @@
+package otdr.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 游标数值读取的JMH基准，每次操作读满64KB缓冲区
+ * <p>按名称取用BenchmarkOperations.numericOperations中的操作，原因见{@link ParseBenchmark}</p>
+ *
+ * @author coderyong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericBenchmark {
+
+    @Param({
+            "SorCursor.u8",
+            "SorCursor.u16",
+            "SorCursor.u16 direct",
+            "SorCursor.i32",
+            "SorCursor.u32",
+            "SorCursor.i64",
+            "SorCursor.u16s",
+            "SorCursor.fixedString(2)",
+            "SorCursor.zString",
+            "SorCursor.skipZString"
+    })
+    public String operation;
+
+    private LongSupplier target;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        Map<String, LongSupplier> operations = (Map<String, LongSupplier>) Class.forName("BenchmarkOperations")
+                .getMethod("numericOperations").invoke(null);
+        target = operations.get(operation);
+        if (target == null) {
+            throw new IllegalArgumentException("unknown operation: " + operation + ", available: "
+                    + operations.keySet());
+        }
+    }
+
+    @Benchmark
+    public long run() {
+        return target.getAsLong();
+    }
+}
@@ -0,0 +1,91 @@
+package otdr.jmh;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 整个文件读取和各区块解码的JMH基准
+ * <p>解析器的类都在默认包中，JMH基准不能放在默认包，因此按名称取用BenchmarkOperations.parseOperations中的操作，
+ * 每个参数组合在独立的JVM中运行，调用点只有一种实现。分配速率用gc profiler查看：</p>
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar -prof gc
+ * java -jar target/benchmarks.jar ParseBenchmark -p operation="read(byte[]) synthetic" -prof gc
+ * </pre>
+ *
+ * @author coderyong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({
+            "read(byte[]) test.sor",
+            "read(InputStream) test.sor",
+            "SorParser.parse test.sor",
+            "toMaps test.sor",
+            "verifyChecksum test.sor",
+            "read(byte[]) synthetic",
+            "read(InputStream) synthetic",
+            "SorParser.parse synthetic",
+            "toMaps synthetic",
+            "verifyChecksum synthetic",
+            "decode GenParams test.sor",
+            "decode SupParams test.sor",
+            "decode FxdParams test.sor",
+            "decode KeyEvents test.sor",
+            "decode DataPts test.sor",
+            "decode Cksum test.sor",
+            "decode GenParams synthetic",
+            "decode SupParams synthetic",
+            "decode FxdParams synthetic",
+            "decode KeyEvents synthetic",
+            "decode LnkParams synthetic",
+            "decode DataPts synthetic",
+            "decode Cksum synthetic"
+    })
+    public String operation;
+
+    /** 样本文件，相对于运行目录 */
+    @Param("test.sor")
+    public String file;
+
+    private Callable<Object> target;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get(file));
+        Map<String, Callable<Object>> operations = (Map<String, Callable<Object>>)
+                Class.forName("BenchmarkOperations").getMethod("parseOperations", byte[].class)
+                        .invoke(null, (Object) sample);
+        target = operations.get(operation);
+        if (target == null) {
+            throw new IllegalArgumentException("unknown operation: " + operation + ", available: "
+                    + operations.keySet());
+        }
+    }
+
+    @Benchmark
+    public Object run() throws Exception {
+        return target.call();
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * 归档中的一条曲线
+ * <p>标量字段和事件直接读取归档的列数据，单位换算与{@link FxdParams}、{@link KeyEvent}一致；
+ * 数据点每次调用{@link #getDataPoints()}时重新解码。列数据只包含常用字段，
+ * 完整内容(全部脉冲宽度、事件标记位置和注释、地标、厂商区块等)通过{@link #toSorFile()}获取</p>
+ *
+ * @author coderyong
+ */
+public final class ArchivedTrace {
+
+    private final SorArchiveReader archive;
+    private final int index;
+
+    ArchivedTrace(SorArchiveReader archive, int index) {
+        this.archive = archive;
+        this.index = index;
+    }
+
+    /**
+     * 在归档中的序号
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getCableId() {
+        return archive.cableIds[archive.fiber[index]];
+    }
+
+    public String getFiberId() {
+        return archive.fiberIds[archive.fiber[index]];
+    }
+
+    public int getWavelength() {
+        return archive.wavelengths[archive.fiber[index]];
+    }
+
+    public long getTimeStamp() {
+        return archive.timeStamp[index];
+    }
+
+    /**
+     * 实际波长
+     *
+     * @return nm，舍去小数部分
+     */
+    public int getActualWavelength() {
+        return archive.actualWavelength[index] / 10;
+    }
+
+    /**
+     * 第一个脉冲宽度
+     */
+    public int getPulseWidth() {
+        return archive.pulseWidth[index];
+    }
+
+    /**
+     * 第一个脉冲宽度的数据点间隔
+     *
+     * @return 相邻数据点的时间间隔(0.1ns)
+     */
+    public float getDataSpacing() {
+        return archive.dataSpacing[index] / 10000F;
+    }
+
+    public float getGroupIndex() {
+        return archive.groupIndex[index] / 100000F;
+    }
+
+    public float getBackscatterCoefficient() {
+        return archive.backscatterCoefficient[index] / 10F;
+    }
+
+    public int getAverages() {
+        return archive.averages[index];
+    }
+
+    public int getAcquisitionRange() {
+        return archive.acquisitionRange[index];
+    }
+
+    public int getAcquisitionOffset() {
+        return archive.acquisitionOffset[index];
+    }
+
+    public int getFrontPanelOffset() {
+        return archive.frontPanelOffset[index];
+    }
+
+    public float getNoiseFloorLevel() {
+        return archive.noiseFloorLevel[index] / 1000F;
+    }
+
+    public float getLossThreshold() {
+        return archive.lossThreshold[index] / 1000F;
+    }
+
+    public float getReflectanceThreshold() {
+        return archive.reflectanceThreshold[index] / -1000F;
+    }
+
+    public float getEndThreshold() {
+        return archive.endThreshold[index] / 1000F;
+    }
+
+    public float getEndToEndLoss() {
+        return archive.endToEndLoss[index] / 1000F;
+    }
+
+    public float getOpticalReturnLoss() {
+        return archive.opticalReturnLoss[index] / 1000F;
+    }
+
+    public int getEventsNumber() {
+        return archive.eventStart[index + 1] - archive.eventStart[index];
+    }
+
+    /**
+     * @param event 事件序号
+     * @return 事件传播时间(0.1ns)
+     */
+    public int getEventPropagationTime(int event) {
+        return archive.eventPropagationTime[eventIndex(event)];
+    }
+
+    public float getAttenuation(int event) {
+        return archive.attenuation[eventIndex(event)] / 1000F;
+    }
+
+    public float getEventLoss(int event) {
+        return archive.eventLoss[eventIndex(event)] / 1000F;
+    }
+
+    public float getEventReflectance(int event) {
+        return archive.eventReflectance[eventIndex(event)] / 1000F;
+    }
+
+    public String getEventCode(int event) {
+        return archive.codes[archive.eventCode[eventIndex(event)]];
+    }
+
+    /**
+     * 解码数据点
+     *
+     * @return 数据点，原文件没有DataPts区块时返回null
+     */
+    public DataPoints getDataPoints() {
+        return archive.decode(index);
+    }
+
+    /**
+     * 重建原文件
+     * <p>每次调用都解压并解析一次；Map区块中的区块长度和校验和重新计算，原文件格式规范且校验和正确时，
+     * 由{@link SorWriter}写出的内容与原文件逐字节相同</p>
+     *
+     * @return 解析结果
+     */
+    public SorFile toSorFile() {
+        return archive.rebuild(index);
+    }
+
+    /**
+     * 数据点和事件位置的距离换算
+     */
+    public DistanceAxis getDistanceAxis() {
+        return new DistanceAxis(archive.dataSpacing[index], archive.groupIndex[index],
+                archive.acquisitionOffset[index], archive.frontPanelOffset[index], archive.sampleCount[index]);
+    }
+
+    private int eventIndex(int event) {
+        if (event < 0 || event >= getEventsNumber()) {
+            throw new IndexOutOfBoundsException("event " + event + ", size " + getEventsNumber());
+        }
+        return archive.eventStart[index] + event;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedTrace{" +
+                "index=" + index +
+                ", cableId='" + getCableId() + '\'' +
+                ", fiberId='" + getFiberId() + '\'' +
+                ", wavelength=" + getWavelength() +
+                ", timeStamp=" + getTimeStamp() +
+                ", events=" + getEventsNumber() +
+                ", points=" + archive.sampleCount[index] +
+                '}';
+    }
+}
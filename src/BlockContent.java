@@ -0,0 +1,80 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 区块字节内容
+ * <p>与源缓冲区共享内容的只读视图，仅在调用{@link #toString()}时才生成文本</p>
+ *
+ * @author coderyong
+ */
+public final class BlockContent {
+
+    private final ByteBuffer buffer;
+
+    BlockContent(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 区块字节长度
+     *
+     * @return 字节长度
+     */
+    public int length() {
+        return buffer.limit();
+    }
+
+    /**
+     * 读取单个字节
+     *
+     * @param index 区块内偏移量
+     * @return 字节值
+     */
+    public byte get(int index) {
+        return buffer.get(index);
+    }
+
+    /**
+     * 获取只读"小端"缓冲区视图
+     *
+     * @return 位置为0的缓冲区视图
+     */
+    public ByteBuffer asByteBuffer() {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 拷贝区块字节内容
+     *
+     * @return 字节数组
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 按{@link Arrays#toString(byte[])}格式输出区块内容
+     * <p>每次调用都会重新生成，结果不做缓存</p>
+     *
+     * @return 字节内容字符串
+     */
+    @Override
+    public String toString() {
+        int length = buffer.limit();
+        if (length == 0) {
+            return "[]";
+        }
+        StringBuilder builder = new StringBuilder(length * 4);
+        builder.append('[');
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(buffer.get(i));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * 校验块
+ *
+ * @author coderyong
+ */
+public final class Checksum {
+
+    /** 校验和 */
+    private final int checksum;
+
+    Checksum(SorCursor cursor) {
+        cursor.skipZString();
+        checksum = cursor.u16();
+    }
+
+    public int getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,133 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SOR文件校验和计算
+ * <p>Bellcore/Telcordia SR-4731使用的CRC-16(多项式0x1021，初值0xFFFF，结果异或0xFFFF，高位在前)，
+ * 采用slice-by-8查表法，每次处理8个字节</p>
+ *
+ * @author coderyong
+ */
+public final class Crc16 {
+
+    private static final int POLYNOMIAL = 0x1021;
+    static final int INITIAL = 0xFFFF;
+    static final int XOR_OUT = 0xFFFF;
+
+    /** TABLE[k][b]：字节b之后再跟k个0字节的CRC余数 */
+    private static final int[][] TABLE = new int[8][256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int crc = b << 8;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ POLYNOMIAL : crc << 1;
+            }
+            TABLE[0][b] = crc & 0xFFFF;
+        }
+        for (int k = 1; k < TABLE.length; k++) {
+            for (int b = 0; b < 256; b++) {
+                int crc = TABLE[k - 1][b];
+                TABLE[k][b] = ((crc << 8) ^ TABLE[0][crc >>> 8]) & 0xFFFF;
+            }
+        }
+    }
+
+    private Crc16() {
+    }
+
+    /**
+     * 计算字节内容的校验和
+     *
+     * @param b      字节内容
+     * @param offset 起始位置
+     * @param length 字节长度
+     * @return 校验和
+     */
+    public static int compute(byte[] b, int offset, int length) {
+        return update(INITIAL, b, offset, length) ^ XOR_OUT;
+    }
+
+    /**
+     * 计算缓冲区内容的校验和，直接读取缓冲区，不拷贝内容
+     *
+     * @param b      缓冲区内容
+     * @param offset 起始位置(绝对位置)
+     * @param length 字节长度
+     * @return 校验和
+     */
+    public static int compute(ByteBuffer b, int offset, int length) {
+        return update(INITIAL, b, offset, length) ^ XOR_OUT;
+    }
+
+    /**
+     * 累加计算缓冲区内容的CRC余数
+     *
+     * @param crc    当前余数，首次调用使用0xFFFF
+     * @param b      缓冲区内容
+     * @param offset 起始位置(绝对位置)
+     * @param length 字节长度
+     * @return 新的余数，结束时需异或0xFFFF
+     */
+    static int update(int crc, ByteBuffer b, int offset, int length) {
+        if (b.hasArray()) {
+            return update(crc, b.array(), b.arrayOffset() + offset, length);
+        }
+        ByteBuffer view = b.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int[] t0 = TABLE[0];
+        int[] t1 = TABLE[1];
+        int[] t2 = TABLE[2];
+        int[] t3 = TABLE[3];
+        int[] t4 = TABLE[4];
+        int[] t5 = TABLE[5];
+        int[] t6 = TABLE[6];
+        int[] t7 = TABLE[7];
+        int end = offset + length;
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            long word = view.getLong(i);
+            int high = (int) (word >>> 32);
+            int low = (int) word;
+            crc = t7[((high >>> 24) ^ (crc >>> 8)) & 0xFF] ^ t6[((high >>> 16) ^ crc) & 0xFF]
+                    ^ t5[(high >>> 8) & 0xFF] ^ t4[high & 0xFF]
+                    ^ t3[low >>> 24] ^ t2[(low >>> 16) & 0xFF]
+                    ^ t1[(low >>> 8) & 0xFF] ^ t0[low & 0xFF];
+        }
+        for (; i < end; i++) {
+            crc = ((crc << 8) ^ t0[((crc >>> 8) ^ view.get(i)) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    /**
+     * 累加计算CRC余数
+     *
+     * @param crc    当前余数，首次调用使用0xFFFF
+     * @param b      字节内容
+     * @param offset 起始位置
+     * @param length 字节长度
+     * @return 新的余数，结束时需异或0xFFFF
+     */
+    static int update(int crc, byte[] b, int offset, int length) {
+        int[] t0 = TABLE[0];
+        int[] t1 = TABLE[1];
+        int[] t2 = TABLE[2];
+        int[] t3 = TABLE[3];
+        int[] t4 = TABLE[4];
+        int[] t5 = TABLE[5];
+        int[] t6 = TABLE[6];
+        int[] t7 = TABLE[7];
+        int end = offset + length;
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            crc = t7[(b[i] ^ (crc >>> 8)) & 0xFF] ^ t6[(b[i + 1] ^ crc) & 0xFF]
+                    ^ t5[b[i + 2] & 0xFF] ^ t4[b[i + 3] & 0xFF]
+                    ^ t3[b[i + 4] & 0xFF] ^ t2[b[i + 5] & 0xFF]
+                    ^ t1[b[i + 6] & 0xFF] ^ t0[b[i + 7] & 0xFF];
+        }
+        for (; i < end; i++) {
+            crc = ((crc << 8) ^ t0[((crc >>> 8) ^ b[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * 数据点块
+ * <p>原始数据点为2字节无符号整型数，按比例因子分组存放；解码后统一保存在一个short数组中，
+ * 需要时通过{@link #toDb()}换算为dB</p>
+ *
+ * @author coderyong
+ */
+public final class DataPoints {
+
+    /** 数据点数 */
+    private final int pointsNumber;
+    /** 各分组的数据点数 */
+    private final int[] groupPoints;
+    /** 各分组的比例因子(1000表示1.0) */
+    private final int[] scaleFactors;
+    /** 原始数据点，按short保存的无符号值 */
+    private final short[] samples;
+
+    DataPoints(SorCursor cursor) {
+        cursor.skipZString();
+        pointsNumber = cursor.i32();
+        int groups = cursor.u16();
+        groupPoints = new int[groups];
+        scaleFactors = new int[groups];
+
+        //数据点数来自文件头，按剩余字节数限制后再分配，避免损坏的文件分配过大的数组
+        short[] samples = new short[Math.max(Math.min(pointsNumber, cursor.remaining() / 2), 0)];
+        int size = 0;
+        for (int i = 0; i < groups; i++) {
+            int count = cursor.i32();
+            groupPoints[i] = count;
+            scaleFactors[i] = cursor.u16();
+            if (count < 0 || count > cursor.remaining() / 2) {
+                throw new IndexOutOfBoundsException("group " + i + " of " + count + " points exceeds "
+                        + cursor.remaining() + " remaining bytes");
+            }
+            if (size + count > samples.length) {
+                samples = Arrays.copyOf(samples, size + count);
+            }
+            cursor.u16s(samples, size, count);
+            size += count;
+        }
+        this.samples = size == samples.length ? samples : Arrays.copyOf(samples, size);
+    }
+
+    /**
+     * 由已解码的数组构造，数组不再复制
+     *
+     * @param pointsNumber 数据点数
+     * @param groupPoints  各分组的数据点数
+     * @param scaleFactors 各分组的比例因子
+     * @param samples      原始数据点
+     */
+    DataPoints(int pointsNumber, int[] groupPoints, int[] scaleFactors, short[] samples) {
+        this.pointsNumber = pointsNumber;
+        this.groupPoints = groupPoints;
+        this.scaleFactors = scaleFactors;
+        this.samples = samples;
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.i32(pointsNumber).u16(scaleFactors.length);
+        int index = 0;
+        for (int group = 0; group < scaleFactors.length; group++) {
+            int count = Math.min(groupPoints[group], samples.length - index);
+            out.i32(count).u16(scaleFactors[group]).u16s(samples, index, count);
+            index += count;
+        }
+    }
+
+    public int getPointsNumber() {
+        return pointsNumber;
+    }
+
+    /**
+     * 比例因子分组数
+     *
+     * @return 分组数
+     */
+    public int getScaleFactorCount() {
+        return scaleFactors.length;
+    }
+
+    /**
+     * 分组的数据点数
+     *
+     * @param group 分组序号
+     * @return 数据点数
+     */
+    public int getGroupPoints(int group) {
+        return groupPoints[group];
+    }
+
+    /**
+     * 分组的比例因子
+     *
+     * @param group 分组序号
+     * @return 比例因子(1000表示1.0)
+     */
+    public int getScaleFactor(int group) {
+        return scaleFactors[group];
+    }
+
+    /**
+     * 已解码的数据点数
+     *
+     * @return 数据点数
+     */
+    public int size() {
+        return samples.length;
+    }
+
+    /**
+     * 读取单个原始数据点
+     *
+     * @param index 数据点序号
+     * @return 无符号原始值
+     */
+    public int getRaw(int index) {
+        return samples[index] & 0xFFFF;
+    }
+
+    /**
+     * 拷贝原始数据点
+     *
+     * @return 按short保存的无符号原始值
+     */
+    public short[] getRawSamples() {
+        return samples.clone();
+    }
+
+    /**
+     * 拷贝原始数据点
+     *
+     * @param target 目标数组
+     * @param offset 目标起始位置
+     */
+    public void copyRaw(int[] target, int offset) {
+        for (int i = 0; i < samples.length; i++) {
+            target[offset + i] = samples[i] & 0xFFFF;
+        }
+    }
+
+    /**
+     * 换算为相对功率电平
+     * <p>dB = -原始值 × 比例因子 / 1000 / 1000，数值越小表示功率越低；每次调用分配一个新数组</p>
+     *
+     * @return 各数据点的dB值
+     */
+    public float[] toDb() {
+        float[] db = new float[samples.length];
+        toDb(db, 0);
+        return db;
+    }
+
+    /**
+     * 换算为相对功率电平并写入已有数组，用于重复使用缓冲区
+     *
+     * @param target 目标数组
+     * @param offset 目标起始位置
+     */
+    public void toDb(float[] target, int offset) {
+        if (offset < 0 || target.length - offset < samples.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", size " + samples.length
+                    + ", target " + target.length);
+        }
+        int index = 0;
+        for (int group = 0; group < scaleFactors.length && index < samples.length; group++) {
+            double scale = scaleFactors[group] / -1000000D;
+            int end = Math.min(index + groupPoints[group], samples.length);
+            for (; index < end; index++) {
+                target[offset + index] = (float) ((samples[index] & 0xFFFF) * scale);
+            }
+        }
+        //比例因子分组未覆盖的数据点
+        Arrays.fill(target, offset + index, offset + samples.length, 0F);
+    }
+
+    /**
+     * 读取单个数据点的相对功率电平
+     *
+     * @param index 数据点序号
+     * @return dB值
+     */
+    public float getDb(int index) {
+        int group = 0;
+        int end = groupPoints.length > 0 ? groupPoints[0] : 0;
+        while (index >= end && group < groupPoints.length - 1) {
+            end += groupPoints[++group];
+        }
+        return (float) ((samples[index] & 0xFFFF) * (scaleFactors[group] / -1000000D));
+    }
+}
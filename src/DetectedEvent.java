@@ -0,0 +1,69 @@
+/**
+ * 从曲线检测到的事件
+ *
+ * @author coderyong
+ * @see EventDetector
+ */
+public final class DetectedEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /** 非反射事件(熔接点、弯曲等)，损耗为负时为增益 */
+        NON_REFLECTIVE,
+        /** 反射事件(活动连接器、机械接头等) */
+        REFLECTIVE,
+        /** 光纤末端 */
+        END
+    }
+
+    private final Type type;
+    /** 数据点序号 */
+    private final int index;
+    /** 距离(km) */
+    private final double distance;
+    /** 事件损耗(dB) */
+    private final float loss;
+    /** 事件反射(dB)，非反射事件为0 */
+    private final float reflectance;
+
+    DetectedEvent(Type type, int index, double distance, float loss, float reflectance) {
+        this.type = type;
+        this.index = index;
+        this.distance = distance;
+        this.loss = loss;
+        this.reflectance = reflectance;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public float getLoss() {
+        return loss;
+    }
+
+    public float getReflectance() {
+        return reflectance;
+    }
+
+    @Override
+    public String toString() {
+        return "DetectedEvent{" +
+                "type=" + type +
+                ", index=" + index +
+                ", distance=" + String.format("%.3f", distance) +
+                ", loss=" + loss +
+                ", reflectance=" + reflectance +
+                '}';
+    }
+}
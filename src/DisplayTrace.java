@@ -0,0 +1,49 @@
+/**
+ * 抽稀后用于显示的曲线
+ *
+ * @author coderyong
+ * @see TraceDecimator
+ */
+public final class DisplayTrace {
+
+    /** 各显示点对应的原始数据点序号 */
+    private final int[] indexes;
+    /** 各显示点的距离(km) */
+    private final float[] distances;
+    /** 各显示点的相对功率电平(dB) */
+    private final float[] values;
+
+    DisplayTrace(int[] indexes, float[] distances, float[] values) {
+        this.indexes = indexes;
+        this.distances = distances;
+        this.values = values;
+    }
+
+    public int size() {
+        return indexes.length;
+    }
+
+    public int getIndex(int point) {
+        return indexes[point];
+    }
+
+    public float getDistance(int point) {
+        return distances[point];
+    }
+
+    public float getDb(int point) {
+        return values[point];
+    }
+
+    public int[] getIndexes() {
+        return indexes.clone();
+    }
+
+    public float[] getDistances() {
+        return distances.clone();
+    }
+
+    public float[] getValues() {
+        return values.clone();
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.List;
+
+/**
+ * 距离换算
+ * <p>文件中的位置都是从前面板起算的单程传播时间(0.1ns)：第i个数据点的时间为采集偏移 + i × 数据点间隔，
+ * 事件、标记和地标直接保存时间。换算为距离时以前面板偏移(光纤起点)为零点，按群折射率折算光速。</p>
+ * <p>数据点的距离轴首次使用时计算一次并缓存，批量换算的循环只有乘加，可被JIT向量化。实例线程安全</p>
+ *
+ * @author coderyong
+ */
+public final class DistanceAxis {
+
+    /** 真空中的光速(km/0.1ns) */
+    private static final double SOL = 0.299792458 / 10000;
+    /** 每个事件的标记位置数 */
+    private static final int MARKERS = 5;
+
+    /** 数据点数 */
+    private final int size;
+    /** 单位传播时间的距离(km/0.1ns) */
+    private final double kmPerTime;
+    /** 时间为0时的距离(km)，即负的前面板偏移距离 */
+    private final double originKm;
+    /** 数据点间隔(0.1ns) */
+    private final double spacing;
+    /** 第一个数据点的时间(0.1ns) */
+    private final double acquisitionOffset;
+    /** 各数据点的距离(km)，首次使用时计算 */
+    private volatile float[] axis;
+
+    /**
+     * @param dataSpacing       采集10000个数据点的时间(100ps)
+     * @param groupIndex        群折射率(×100000)
+     * @param acquisitionOffset 采集偏移(0.1ns)
+     * @param frontPanelOffset  前面板偏移(0.1ns)
+     * @param size              数据点数
+     */
+    DistanceAxis(int dataSpacing, int groupIndex, int acquisitionOffset, int frontPanelOffset, int size) {
+        if (groupIndex <= 0) {
+            throw new IllegalArgumentException("group index must be positive: " + groupIndex);
+        }
+        this.size = size;
+        this.kmPerTime = SOL / (groupIndex / 100000D);
+        this.originKm = -frontPanelOffset * kmPerTime;
+        this.spacing = dataSpacing / 10000D;
+        this.acquisitionOffset = acquisitionOffset;
+    }
+
+    /**
+     * 文件的距离换算
+     *
+     * @param file 解析结果，需包含FxdParams和DataPts区块
+     * @return 距离换算
+     */
+    public static DistanceAxis of(SorFile file) {
+        FxdParams fxd = file.getFxdParams();
+        DataPoints dataPoints = file.getDataPoints();
+        if (fxd == null || dataPoints == null) {
+            throw new IllegalArgumentException("FxdParams and DataPts are required");
+        }
+        return new DistanceAxis(fxd.rawDataSpacing(), fxd.rawGroupIndex(), fxd.getAcquisitionOffset(),
+                fxd.getFrontPanelOffset(), dataPoints.size());
+    }
+
+    /**
+     * 数据点数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 相邻数据点的距离
+     *
+     * @return km
+     */
+    public double getKmPerPoint() {
+        return spacing * kmPerTime;
+    }
+
+    /**
+     * 数据点的距离
+     *
+     * @param point 数据点序号
+     * @return km
+     */
+    public double pointToKm(double point) {
+        return (acquisitionOffset + point * spacing) * kmPerTime + originKm;
+    }
+
+    /**
+     * 距离对应的数据点序号
+     *
+     * @param km 距离(km)
+     * @return 数据点序号，带小数，可能超出曲线范围
+     */
+    public double kmToPoint(double km) {
+        return ((km - originKm) / kmPerTime - acquisitionOffset) / spacing;
+    }
+
+    /**
+     * 传播时间的距离
+     *
+     * @param time 传播时间(0.1ns)
+     * @return km
+     */
+    public double timeToKm(int time) {
+        return time * kmPerTime + originKm;
+    }
+
+    /**
+     * 传播时间对应的数据点序号
+     *
+     * @param time 传播时间(0.1ns)
+     * @return 最近的数据点序号，可能超出曲线范围
+     */
+    public int timeToPoint(int time) {
+        return (int) Math.round((time - acquisitionOffset) / spacing);
+    }
+
+    /**
+     * 批量换算传播时间
+     *
+     * @param times 传播时间(0.1ns)
+     * @param out   距离(km)，长度不小于times
+     */
+    public void timeToKm(int[] times, double[] out) {
+        if (out.length < times.length) {
+            throw new IndexOutOfBoundsException("output " + out.length + ", times " + times.length);
+        }
+        double scale = kmPerTime;
+        double origin = originKm;
+        for (int i = 0; i < times.length; i++) {
+            out[i] = times[i] * scale + origin;
+        }
+    }
+
+    /**
+     * 批量换算传播时间
+     *
+     * @param times 传播时间(0.1ns)
+     * @return 距离(km)
+     */
+    public double[] timeToKm(int[] times) {
+        double[] out = new double[times.length];
+        timeToKm(times, out);
+        return out;
+    }
+
+    /**
+     * 各事件的距离
+     *
+     * @param keyEvents 事件块
+     * @return 按事件顺序的距离(km)
+     */
+    public double[] getEventDistances(KeyEvents keyEvents) {
+        List<KeyEvent> events = keyEvents.getEvents();
+        int[] times = new int[events.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = events.get(i).getEventPropagationTime();
+        }
+        return timeToKm(times);
+    }
+
+    /**
+     * 事件各标记位置的距离
+     *
+     * @param event 事件
+     * @return 按标记顺序的距离(km)
+     */
+    public double[] getMarkerDistances(KeyEvent event) {
+        return timeToKm(event.rawMarkerLocations());
+    }
+
+    /**
+     * 所有事件标记位置的距离
+     *
+     * @param keyEvents 事件块
+     * @return 第i个事件第j个标记位于[i × 5 + j]的距离(km)
+     */
+    public double[] getMarkerDistances(KeyEvents keyEvents) {
+        List<KeyEvent> events = keyEvents.getEvents();
+        int[] times = new int[events.size() * MARKERS];
+        for (int i = 0; i < events.size(); i++) {
+            System.arraycopy(events.get(i).rawMarkerLocations(), 0, times, i * MARKERS, MARKERS);
+        }
+        return timeToKm(times);
+    }
+
+    /**
+     * 各地标的距离
+     *
+     * @param lnkParams 链接参数块
+     * @return 按地标顺序的距离(km)
+     */
+    public double[] getLandmarkDistances(LnkParams lnkParams) {
+        List<Landmark> landmarks = lnkParams.getLandmarks();
+        int[] times = new int[landmarks.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = landmarks.get(i).getLandmarkLocation();
+        }
+        return timeToKm(times);
+    }
+
+    /**
+     * 各数据点的距离
+     *
+     * @return 距离(km)，长度为数据点数
+     */
+    public float[] getAxis() {
+        return axis().clone();
+    }
+
+    /**
+     * 缓存的距离轴，供同包代码直接读取，不可修改
+     */
+    float[] axis() {
+        float[] axis = this.axis;
+        if (axis == null) {
+            axis = new float[size];
+            double step = spacing * kmPerTime;
+            double first = acquisitionOffset * kmPerTime + originKm;
+            for (int i = 0; i < axis.length; i++) {
+                axis[i] = (float) (first + i * step);
+            }
+            this.axis = axis;
+        }
+        return axis;
+    }
+
+    @Override
+    public String toString() {
+        return "DistanceAxis{" +
+                "size=" + size +
+                ", kmPerPoint=" + getKmPerPoint() +
+                ", startKm=" + pointToKm(0) +
+                '}';
+    }
+}
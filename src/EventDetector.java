@@ -0,0 +1,278 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 事件检测
+ * <p>对DataPts的dB曲线做一次顺序扫描，不依赖仪器写入的KeyEvents：</p>
+ * <ul>
+ * <li>在每个位置左侧取一个窗口，右侧跳过一个脉冲宽度的盲区再取一个窗口，两窗口平均值之差
+ * 扣除两窗口中心间距上的光纤衰减即为台阶损耗；光纤衰减斜率由左窗口最小二乘拟合得到，
+ * 只在事件之外更新，避免窗口跨过台阶时斜率失真；窗口的求和量随位置滑动增量更新</li>
+ * <li>数据点进入盲区时与盲区前的电平比较，差值为反射峰高度，按后向散射系数和脉冲宽度换算为反射率</li>
+ * <li>损耗超过FxdParams中的损耗阈值(且高于左侧拟合残差估计的噪声)时为非反射事件，
+ * 反射率超过反射阈值时为反射事件；损耗超过末端阈值时再扫描一个窗口以包含末端反射，随后结束扫描</li>
+ * </ul>
+ * <p>连续超过阈值的位置合并为一个事件(间隔不足半个窗口的也合并，反射峰经过右窗口时会产生反向台阶)，
+ * 非反射事件取损耗最大的位置，反射事件取反射峰第一个超过阈值的数据点向前的上升沿。
+ * 检测结果与文件中的KeyEvents按距离配对，报告缺少、多出和类型不同的事件。实例线程安全</p>
+ *
+ * @author coderyong
+ */
+public final class EventDetector {
+
+    /** 噪声判定倍数，台阶和反射峰需大于拟合残差估计的噪声的该倍数 */
+    private static final double NOISE_SIGMAS = 4;
+    /** 自动选择窗口时的最小窗口数据点数 */
+    private static final int MIN_WINDOW = 8;
+
+    /** 拟合窗口数据点数，0表示按脉冲宽度自动选择 */
+    private final int window;
+
+    public EventDetector() {
+        this(0);
+    }
+
+    /**
+     * @param window 拟合窗口数据点数，0表示取脉冲宽度对应的数据点数(不少于8)
+     */
+    public EventDetector(int window) {
+        if (window < 0 || window == 1 || window == 2) {
+            throw new IllegalArgumentException("window must be 0 or at least 3: " + window);
+        }
+        this.window = window;
+    }
+
+    /**
+     * 检测事件并与文件中的KeyEvents比较
+     *
+     * @param file 解析结果，需包含FxdParams和DataPts区块
+     * @return 检测结果
+     */
+    public EventReport detect(SorFile file) {
+        DistanceAxis axis = DistanceAxis.of(file);
+        FxdParams fxd = file.getFxdParams();
+        //数据点间隔(ns)
+        double spacing = fxd.rawDataSpacing() / 100000D;
+        int pulseWidth = fxd.getPulseNumber() > 0 ? fxd.getPulseWidths()[0] : 0;
+        int deadZone = Math.max(1, (int) Math.round(pulseWidth / spacing));
+
+        List<DetectedEvent> events = detect(file.getDataPoints().toDb(), deadZone,
+                window > 0 ? window : Math.max(MIN_WINDOW, deadZone), axis,
+                fxd.getLossThreshold(), fxd.getReflectanceThreshold(), fxd.getEndThreshold(),
+                -fxd.getBackscatterCoefficient(), Math.max(pulseWidth, 1));
+
+        KeyEvents keyEvents = file.getKeyEvents();
+        List<EventMismatch> mismatches = keyEvents == null ? Collections.<EventMismatch>emptyList()
+                : compare(keyEvents.getEvents(), events, axis, deadZone);
+        return new EventReport(events, mismatches);
+    }
+
+    /**
+     * 扫描dB曲线
+     *
+     * @param db                   各数据点的dB值
+     * @param deadZone             脉冲宽度对应的数据点数
+     * @param window               拟合窗口数据点数
+     * @param axis                 数据点的距离换算
+     * @param lossThreshold        损耗阈值(dB)
+     * @param reflectanceThreshold 反射阈值(dB)
+     * @param endThreshold         末端阈值(dB)
+     * @param backscatter          1ns脉冲的后向散射系数(dB)
+     * @param pulseWidth           脉冲宽度(ns)
+     * @return 按距离排序的事件
+     */
+    static List<DetectedEvent> detect(float[] db, int deadZone, int window, DistanceAxis axis,
+                                      double lossThreshold, double reflectanceThreshold, double endThreshold,
+                                      double backscatter, double pulseWidth) {
+        List<DetectedEvent> events = new ArrayList<>();
+        int n = db.length;
+        int w = window;
+        int d = deadZone;
+        //左窗口从发射盲区之后开始，右窗口不能超出曲线
+        int start = d + w;
+        int last = n - d - w;
+        if (last < start) {
+            return events;
+        }
+
+        //窗口内局部坐标0..w-1的拟合常量
+        double xm = (w - 1) / 2D;
+        double scc = w * ((double) w * w - 1) / 12;
+        double inverseScc = 1 / scc;
+        double inverseW = 1D / w;
+        int gap = Math.max(1, w / 2);
+        //两窗口平均值之差的方差为2σ²/w，σ²由左窗口拟合残差估计
+        double noiseFactor = NOISE_SIGMAS * NOISE_SIGMAS * 2 / w / (w - 2);
+        double lossSquared = lossThreshold * lossThreshold;
+        //反射率达到阈值所需的最小峰高：R = BC + 10lg(10^(H/5) - 1) + 10lg(D)
+        double minPeak = 5 * Math.log10(1 + Math.pow(10,
+                (reflectanceThreshold - backscatter - 10 * Math.log10(pulseWidth)) / 10));
+
+        double sy = 0, sxy = 0, syy = 0;
+        for (int x = start - w; x < start; x++) {
+            sy += db[x];
+            sxy += (double) x * db[x];
+            syy += (double) db[x] * db[x];
+        }
+        double right = 0;
+        double rightXy = 0;
+        for (int x = start + d; x < start + d + w; x++) {
+            right += db[x];
+            rightXy += (double) x * db[x];
+        }
+        //事件之外的光纤衰减斜率(dB/数据点)，按左窗口斜率指数平滑；
+        //初值取离发射端较远的右窗口，左窗口此时可能仍在前端反射的恢复区内
+        double attenuation = (rightXy - (start + d + xm) * right) * inverseScc;
+        boolean inRun = false;
+        //不超过阈值的连续位置数
+        int quiet = 0;
+        int endLimit = -1;
+        int lossIndex = 0;
+        double bestLoss = 0;
+        int peakIndex = -1;
+        double bestPeak = 0;
+        for (int i = start; ; i++) {
+            int lStart = i - w;
+            double mean = sy * inverseW;
+            double slope = (sxy - (lStart + xm) * sy) * inverseScc;
+            double level = mean + attenuation * (w - xm);
+            double loss = mean - right * inverseW + attenuation * (w + d);
+            int peak = i + d;
+            double height = db[peak] - level;
+            double lossAbs = loss * loss;
+            boolean reflective = false;
+            boolean candidate = endLimit >= 0;
+            if (height >= minPeak || lossAbs >= lossSquared) {
+                //超过阈值时才计算噪声
+                double noise = noiseFactor * Math.max(0, syy - w * mean * mean - slope * slope * scc);
+                reflective = height >= minPeak && height * height >= noise;
+                candidate |= reflective || lossAbs >= lossSquared && lossAbs >= noise;
+            }
+            if (candidate) {
+                quiet = 0;
+                if (!inRun) {
+                    inRun = true;
+                    bestLoss = 0;
+                    peakIndex = -1;
+                    bestPeak = 0;
+                }
+                if (lossAbs > bestLoss * bestLoss) {
+                    bestLoss = loss;
+                    lossIndex = i;
+                }
+                if (reflective) {
+                    //位置取第一个超过阈值的数据点，峰顶可能是平台
+                    if (peakIndex < 0) {
+                        peakIndex = peak;
+                    }
+                    bestPeak = Math.max(bestPeak, height);
+                }
+                if (endLimit < 0 && loss >= endThreshold) {
+                    endLimit = Math.min(i + d + w, last);
+                }
+            } else {
+                if (inRun && ++quiet >= gap) {
+                    inRun = false;
+                    emit(events, db, d, axis, endThreshold, backscatter, pulseWidth,
+                            lossIndex, bestLoss, peakIndex, bestPeak);
+                }
+                if (!inRun) {
+                    attenuation += (slope - attenuation) * inverseW;
+                }
+            }
+            if (i == last || i == endLimit) {
+                break;
+            }
+
+            //窗口右移一个数据点
+            double enter = db[i];
+            double leave = db[lStart];
+            sy += enter - leave;
+            sxy += i * enter - lStart * leave;
+            syy += enter * enter - leave * leave;
+            right += db[i + d + w] - db[i + d];
+        }
+        if (inRun) {
+            emit(events, db, d, axis, endThreshold, backscatter, pulseWidth,
+                    lossIndex, bestLoss, peakIndex, bestPeak);
+        }
+        return events;
+    }
+
+    /**
+     * 输出一个事件
+     */
+    private static void emit(List<DetectedEvent> events, float[] db, int deadZone, DistanceAxis axis,
+                             double endThreshold, double backscatter, double pulseWidth,
+                             int lossIndex, double loss, int peakIndex, double peak) {
+        int index = lossIndex;
+        float reflectance = 0;
+        if (peakIndex >= 0) {
+            //向前找到反射峰的上升沿
+            index = peakIndex;
+            while (index > 0 && index > peakIndex - deadZone && db[index - 1] < db[index]) {
+                index--;
+            }
+            reflectance = (float) (backscatter + 10 * Math.log10(Math.pow(10, peak / 5) - 1)
+                    + 10 * Math.log10(pulseWidth));
+        }
+        DetectedEvent.Type type = loss >= endThreshold ? DetectedEvent.Type.END
+                : peakIndex >= 0 ? DetectedEvent.Type.REFLECTIVE : DetectedEvent.Type.NON_REFLECTIVE;
+        events.add(new DetectedEvent(type, index, axis.pointToKm(index), (float) loss, reflectance));
+    }
+
+    /**
+     * 按距离配对检测事件与文件中的事件
+     *
+     * @param stored    文件中的事件
+     * @param detected  检测到的事件
+     * @param axis      数据点的距离换算
+     * @param tolerance 允许的位置偏差(数据点)
+     * @return 差异
+     */
+    private static List<EventMismatch> compare(List<KeyEvent> stored, List<DetectedEvent> detected,
+                                               DistanceAxis axis, int tolerance) {
+        List<EventMismatch> mismatches = new ArrayList<>();
+        boolean[] matched = new boolean[detected.size()];
+        for (KeyEvent event : stored) {
+            int index = axis.timeToPoint(event.getEventPropagationTime());
+            int nearest = -1;
+            for (int i = 0; i < detected.size(); i++) {
+                int distance = Math.abs(detected.get(i).getIndex() - index);
+                if (!matched[i] && distance <= tolerance
+                        && (nearest < 0 || distance < Math.abs(detected.get(nearest).getIndex() - index))) {
+                    nearest = i;
+                }
+            }
+            if (nearest < 0) {
+                mismatches.add(new EventMismatch(EventMismatch.Kind.MISSING, event, null, index));
+                continue;
+            }
+            matched[nearest] = true;
+            DetectedEvent match = detected.get(nearest);
+            if (match.getType() != typeOf(event)) {
+                mismatches.add(new EventMismatch(EventMismatch.Kind.TYPE, event, match, index));
+            }
+        }
+        for (int i = 0; i < matched.length; i++) {
+            if (!matched[i]) {
+                DetectedEvent event = detected.get(i);
+                mismatches.add(new EventMismatch(EventMismatch.Kind.EXTRA, null, event, event.getIndex()));
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * 事件代码第1位为0表示非反射，1、2表示反射；第2位为E表示光纤末端
+     */
+    private static DetectedEvent.Type typeOf(KeyEvent event) {
+        String code = event.getEventCode();
+        if (code.length() > 1 && code.charAt(1) == 'E') {
+            return DetectedEvent.Type.END;
+        }
+        return code.length() > 0 && (code.charAt(0) == '1' || code.charAt(0) == '2')
+                ? DetectedEvent.Type.REFLECTIVE : DetectedEvent.Type.NON_REFLECTIVE;
+    }
+}
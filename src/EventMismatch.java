@@ -0,0 +1,61 @@
+/**
+ * 检测结果与文件中KeyEvents的差异
+ *
+ * @author coderyong
+ * @see EventDetector
+ */
+public final class EventMismatch {
+
+    /**
+     * 差异类型
+     */
+    public enum Kind {
+        /** 文件中有，但未检测到 */
+        MISSING,
+        /** 检测到，但文件中没有 */
+        EXTRA,
+        /** 位置一致但类型不同(反射/非反射/末端) */
+        TYPE
+    }
+
+    private final Kind kind;
+    /** 文件中的事件，EXTRA时为null */
+    private final KeyEvent stored;
+    /** 检测到的事件，MISSING时为null */
+    private final DetectedEvent detected;
+    /** 数据点序号 */
+    private final int index;
+
+    EventMismatch(Kind kind, KeyEvent stored, DetectedEvent detected, int index) {
+        this.kind = kind;
+        this.stored = stored;
+        this.detected = detected;
+        this.index = index;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public KeyEvent getStored() {
+        return stored;
+    }
+
+    public DetectedEvent getDetected() {
+        return detected;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "EventMismatch{" +
+                "kind=" + kind +
+                ", index=" + index +
+                ", stored=" + (stored == null ? null : stored.getEventNumber() + "/" + stored.getEventCode()) +
+                ", detected=" + detected +
+                '}';
+    }
+}
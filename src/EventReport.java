@@ -0,0 +1,48 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 事件检测结果
+ *
+ * @author coderyong
+ * @see EventDetector
+ */
+public final class EventReport {
+
+    private final List<DetectedEvent> events;
+    private final List<EventMismatch> mismatches;
+
+    EventReport(List<DetectedEvent> events, List<EventMismatch> mismatches) {
+        this.events = Collections.unmodifiableList(events);
+        this.mismatches = Collections.unmodifiableList(mismatches);
+    }
+
+    /**
+     * 按距离排序的检测事件，最后一个可能是光纤末端
+     */
+    public List<DetectedEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * 与文件中KeyEvents的差异，文件没有KeyEvents区块时为空
+     */
+    public List<EventMismatch> getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * 检测结果与KeyEvents是否一致
+     */
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "EventReport{" +
+                "events=" + events +
+                ", mismatches=" + mismatches +
+                '}';
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * 固定参数块
+ * <p>按文件中的原始整数保存字段，读取时再换算单位，重新写入时不会损失精度</p>
+ *
+ * @author coderyong
+ */
+public final class FxdParams {
+
+    /** 测量时间(秒) */
+    private final long timeStamp;
+    /** 距离单位 */
+    private final String distanceUnits;
+    /** 实际波长(0.1nm) */
+    private final int actualWavelength;
+    /** 采集偏移 */
+    private final int acquisitionOffset;
+    /** 采集偏移距离 */
+    private final int acquisitionOffsetDistance;
+    /** 脉冲宽度 */
+    private final int[] pulseWidths;
+    /** 采集10000个数据点的时间(100ps) */
+    private final int[] dataSpacing;
+    /** 各脉冲宽度的数据点数 */
+    private final int[] dataPoints;
+    /** 群折射率(×100000) */
+    private final int groupIndex;
+    /** 背向散射系数(×10) */
+    private final int backscatterCoefficient;
+    /** 平均次数 */
+    private final int averages;
+    /** 平均时间 */
+    private final int averagingTime;
+    /** 采集范围 */
+    private final int acquisitionRange;
+    /** 采集范围距离 */
+    private final int acquisitionRangeDistance;
+    /** 前面板偏移 */
+    private final int frontPanelOffset;
+    /** 噪声电平(0.001dB) */
+    private final int noiseFloorLevel;
+    /** 噪声电平比例因子(×1000) */
+    private final int noiseFloorScaleFactor;
+    /** 首点功率偏移(0.001dB) */
+    private final int powerOffsetFirstPoint;
+    /** 损耗阈值(0.001dB) */
+    private final int lossThreshold;
+    /** 反射阈值(-0.001dB) */
+    private final int reflectanceThreshold;
+    /** 光纤末端阈值(0.001dB) */
+    private final int endThreshold;
+    /** 曲线类型 */
+    private final String traceType;
+    /** 窗口坐标 */
+    private final int[] windowCoordinates;
+
+    FxdParams(SorCursor cursor) {
+        cursor.skipZString();
+        timeStamp = cursor.u32();
+        distanceUnits = cursor.fixedString(2);
+        actualWavelength = cursor.u16();
+        acquisitionOffset = cursor.i32();
+        acquisitionOffsetDistance = cursor.i32();
+
+        int pulseNumber = cursor.u16();
+        pulseWidths = new int[pulseNumber];
+        for (int i = 0; i < pulseNumber; i++) {
+            pulseWidths[i] = cursor.u16();
+        }
+        dataSpacing = new int[pulseNumber];
+        for (int i = 0; i < pulseNumber; i++) {
+            dataSpacing[i] = cursor.i32();
+        }
+        dataPoints = new int[pulseNumber];
+        for (int i = 0; i < pulseNumber; i++) {
+            dataPoints[i] = cursor.i32();
+        }
+
+        groupIndex = cursor.i32();
+        backscatterCoefficient = cursor.u16();
+        averages = cursor.i32();
+        averagingTime = cursor.u16();
+        acquisitionRange = cursor.i32();
+        acquisitionRangeDistance = cursor.i32();
+        frontPanelOffset = cursor.i32();
+        noiseFloorLevel = cursor.u16();
+        noiseFloorScaleFactor = cursor.u16();
+        powerOffsetFirstPoint = cursor.u16();
+        lossThreshold = cursor.u16();
+        reflectanceThreshold = cursor.u16();
+        endThreshold = cursor.u16();
+        traceType = cursor.fixedString(2);
+
+        windowCoordinates = new int[4];
+        for (int i = 0; i < windowCoordinates.length; i++) {
+            windowCoordinates[i] = cursor.i32();
+        }
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.i32((int) timeStamp).fixedString(distanceUnits, 2).u16(actualWavelength)
+                .i32(acquisitionOffset).i32(acquisitionOffsetDistance).u16(pulseWidths.length);
+        for (int pulseWidth : pulseWidths) {
+            out.u16(pulseWidth);
+        }
+        for (int spacing : dataSpacing) {
+            out.i32(spacing);
+        }
+        for (int points : dataPoints) {
+            out.i32(points);
+        }
+        out.i32(groupIndex).u16(backscatterCoefficient).i32(averages).u16(averagingTime)
+                .i32(acquisitionRange).i32(acquisitionRangeDistance).i32(frontPanelOffset)
+                .u16(noiseFloorLevel).u16(noiseFloorScaleFactor).u16(powerOffsetFirstPoint)
+                .u16(lossThreshold).u16(reflectanceThreshold).u16(endThreshold)
+                .fixedString(traceType, 2);
+        for (int coordinate : windowCoordinates) {
+            out.i32(coordinate);
+        }
+    }
+
+    //以下为文件中的原始整数值，供同包的编码器无损读取
+
+    int rawActualWavelength() {
+        return actualWavelength;
+    }
+
+    int rawDataSpacing() {
+        return dataSpacing.length > 0 ? dataSpacing[0] : 0;
+    }
+
+    int rawGroupIndex() {
+        return groupIndex;
+    }
+
+    int rawBackscatterCoefficient() {
+        return backscatterCoefficient;
+    }
+
+    int rawNoiseFloorLevel() {
+        return noiseFloorLevel;
+    }
+
+    int rawLossThreshold() {
+        return lossThreshold;
+    }
+
+    int rawReflectanceThreshold() {
+        return reflectanceThreshold;
+    }
+
+    int rawEndThreshold() {
+        return endThreshold;
+    }
+
+    public long getTimeStamp() {
+        return timeStamp;
+    }
+
+    public String getDistanceUnits() {
+        return distanceUnits;
+    }
+
+    /**
+     * 实际波长
+     *
+     * @return nm，舍去小数部分
+     */
+    public int getActualWavelength() {
+        return actualWavelength / 10;
+    }
+
+    public int getAcquisitionOffset() {
+        return acquisitionOffset;
+    }
+
+    public int getAcquisitionOffsetDistance() {
+        return acquisitionOffsetDistance;
+    }
+
+    public int getPulseNumber() {
+        return pulseWidths.length;
+    }
+
+    public int[] getPulseWidths() {
+        return pulseWidths.clone();
+    }
+
+    /**
+     * 数据点间隔
+     *
+     * @return 各脉冲宽度相邻数据点的时间间隔(0.1ns)
+     */
+    public float[] getDataSpacing() {
+        float[] spacing = new float[dataSpacing.length];
+        for (int i = 0; i < spacing.length; i++) {
+            spacing[i] = dataSpacing[i] / 10000F;
+        }
+        return spacing;
+    }
+
+    public int[] getDataPoints() {
+        return dataPoints.clone();
+    }
+
+    public float getGroupIndex() {
+        return groupIndex / 100000F;
+    }
+
+    public float getBackscatterCoefficient() {
+        return backscatterCoefficient / 10F;
+    }
+
+    public int getAverages() {
+        return averages;
+    }
+
+    public int getAveragingTime() {
+        return averagingTime;
+    }
+
+    public int getAcquisitionRange() {
+        return acquisitionRange;
+    }
+
+    public int getAcquisitionRangeDistance() {
+        return acquisitionRangeDistance;
+    }
+
+    public int getFrontPanelOffset() {
+        return frontPanelOffset;
+    }
+
+    public float getNoiseFloorLevel() {
+        return noiseFloorLevel / 1000F;
+    }
+
+    public float getNoiseFloorScaleFactor() {
+        return noiseFloorScaleFactor / 1000F;
+    }
+
+    public float getPowerOffsetFirstPoint() {
+        return powerOffsetFirstPoint / 1000F;
+    }
+
+    public float getLossThreshold() {
+        return lossThreshold / 1000F;
+    }
+
+    public float getReflectanceThreshold() {
+        return reflectanceThreshold / -1000F;
+    }
+
+    public float getEndThreshold() {
+        return endThreshold / 1000F;
+    }
+
+    public String getTraceType() {
+        return traceType;
+    }
+
+    public int[] getWindowCoordinates() {
+        return windowCoordinates.clone();
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * 一般参数块
+ *
+ * @author coderyong
+ */
+public final class GenParams {
+
+    /** 语言代码 */
+    private final String languageCode;
+    /** 光缆编号 */
+    private final String cableId;
+    /** 光纤编号 */
+    private final String fiberId;
+    /** 光纤类型 */
+    private final int fiberType;
+    /** 标称波长(nm) */
+    private final int wavelength;
+    /** 起始位置 */
+    private final String originatingLocation;
+    /** 终止位置 */
+    private final String terminatingLocation;
+    /** 光缆代码 */
+    private final String cableCode;
+    /** 当前数据标识 */
+    private final String dataFlag;
+    /** 用户偏移 */
+    private final int userOffset;
+    /** 用户偏移距离 */
+    private final int userOffsetDistance;
+    /** 操作员 */
+    private final String operator;
+    /** 备注 */
+    private final String comment;
+
+    GenParams(SorCursor cursor) {
+        cursor.skipZString();
+        languageCode = cursor.fixedString(2);
+        cableId = cursor.zString();
+        fiberId = cursor.zString();
+        fiberType = cursor.u16();
+        wavelength = cursor.u16();
+        originatingLocation = cursor.zString();
+        terminatingLocation = cursor.zString();
+        cableCode = cursor.zString();
+        dataFlag = cursor.fixedString(2);
+        userOffset = cursor.i32();
+        userOffsetDistance = cursor.i32();
+        operator = cursor.zString();
+        comment = cursor.zString();
+    }
+
+    private GenParams(Builder builder) {
+        languageCode = builder.languageCode;
+        cableId = builder.cableId;
+        fiberId = builder.fiberId;
+        fiberType = builder.fiberType;
+        wavelength = builder.wavelength;
+        originatingLocation = builder.originatingLocation;
+        terminatingLocation = builder.terminatingLocation;
+        cableCode = builder.cableCode;
+        dataFlag = builder.dataFlag;
+        userOffset = builder.userOffset;
+        userOffsetDistance = builder.userOffsetDistance;
+        operator = builder.operator;
+        comment = builder.comment;
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.fixedString(languageCode, 2).zString(cableId).zString(fiberId).u16(fiberType).u16(wavelength)
+                .zString(originatingLocation).zString(terminatingLocation).zString(cableCode)
+                .fixedString(dataFlag, 2).i32(userOffset).i32(userOffsetDistance)
+                .zString(operator).zString(comment);
+    }
+
+    /**
+     * 以当前参数为初始值创建构建器，用于修改部分字段
+     *
+     * @return 构建器
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    public String getCableId() {
+        return cableId;
+    }
+
+    public String getFiberId() {
+        return fiberId;
+    }
+
+    public int getFiberType() {
+        return fiberType;
+    }
+
+    public int getWavelength() {
+        return wavelength;
+    }
+
+    public String getOriginatingLocation() {
+        return originatingLocation;
+    }
+
+    public String getTerminatingLocation() {
+        return terminatingLocation;
+    }
+
+    public String getCableCode() {
+        return cableCode;
+    }
+
+    public String getDataFlag() {
+        return dataFlag;
+    }
+
+    public int getUserOffset() {
+        return userOffset;
+    }
+
+    public int getUserOffsetDistance() {
+        return userOffsetDistance;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * 一般参数块构建器
+     */
+    public static final class Builder {
+
+        private String languageCode;
+        private String cableId;
+        private String fiberId;
+        private int fiberType;
+        private int wavelength;
+        private String originatingLocation;
+        private String terminatingLocation;
+        private String cableCode;
+        private String dataFlag;
+        private int userOffset;
+        private int userOffsetDistance;
+        private String operator;
+        private String comment;
+
+        private Builder(GenParams params) {
+            languageCode = params.languageCode;
+            cableId = params.cableId;
+            fiberId = params.fiberId;
+            fiberType = params.fiberType;
+            wavelength = params.wavelength;
+            originatingLocation = params.originatingLocation;
+            terminatingLocation = params.terminatingLocation;
+            cableCode = params.cableCode;
+            dataFlag = params.dataFlag;
+            userOffset = params.userOffset;
+            userOffsetDistance = params.userOffsetDistance;
+            operator = params.operator;
+            comment = params.comment;
+        }
+
+        public Builder setLanguageCode(String languageCode) {
+            this.languageCode = languageCode;
+            return this;
+        }
+
+        public Builder setCableId(String cableId) {
+            this.cableId = cableId;
+            return this;
+        }
+
+        public Builder setFiberId(String fiberId) {
+            this.fiberId = fiberId;
+            return this;
+        }
+
+        public Builder setFiberType(int fiberType) {
+            this.fiberType = fiberType;
+            return this;
+        }
+
+        public Builder setWavelength(int wavelength) {
+            this.wavelength = wavelength;
+            return this;
+        }
+
+        public Builder setOriginatingLocation(String originatingLocation) {
+            this.originatingLocation = originatingLocation;
+            return this;
+        }
+
+        public Builder setTerminatingLocation(String terminatingLocation) {
+            this.terminatingLocation = terminatingLocation;
+            return this;
+        }
+
+        public Builder setCableCode(String cableCode) {
+            this.cableCode = cableCode;
+            return this;
+        }
+
+        public Builder setDataFlag(String dataFlag) {
+            this.dataFlag = dataFlag;
+            return this;
+        }
+
+        public Builder setUserOffset(int userOffset) {
+            this.userOffset = userOffset;
+            return this;
+        }
+
+        public Builder setUserOffsetDistance(int userOffsetDistance) {
+            this.userOffsetDistance = userOffsetDistance;
+            return this;
+        }
+
+        public Builder setOperator(String operator) {
+            this.operator = operator;
+            return this;
+        }
+
+        public Builder setComment(String comment) {
+            this.comment = comment;
+            return this;
+        }
+
+        public GenParams build() {
+            return new GenParams(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * 关键事件
+ *
+ * @author coderyong
+ */
+public final class KeyEvent {
+
+    /** 事件编号 */
+    private final int eventNumber;
+    /** 事件传播时间(0.1ns) */
+    private final int eventPropagationTime;
+    /** 导入光纤衰减系数(0.001dB/km) */
+    private final int attenuation;
+    /** 事件损耗(0.001dB) */
+    private final int eventLoss;
+    /** 事件反射(0.001dB) */
+    private final int eventReflectance;
+    /** 事件代码 */
+    private final String eventCode;
+    /** 损耗测量方法 */
+    private final String lossMeasurementTechnique;
+    /** 标记位置 */
+    private final int[] markerLocations;
+    /** 备注 */
+    private final String comment;
+
+    KeyEvent(SorCursor cursor) {
+        eventNumber = cursor.u16();
+        eventPropagationTime = cursor.i32();
+        attenuation = cursor.u16();
+        eventLoss = cursor.u16();
+        eventReflectance = cursor.i32();
+        eventCode = cursor.fixedString(6);
+        lossMeasurementTechnique = cursor.fixedString(2);
+        markerLocations = new int[5];
+        for (int i = 0; i < markerLocations.length; i++) {
+            markerLocations[i] = cursor.i32();
+        }
+        comment = cursor.zString();
+    }
+
+    /**
+     * 写入事件内容
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.u16(eventNumber).i32(eventPropagationTime).u16(attenuation).u16(eventLoss).i32(eventReflectance)
+                .fixedString(eventCode, 6).fixedString(lossMeasurementTechnique, 2);
+        for (int location : markerLocations) {
+            out.i32(location);
+        }
+        out.zString(comment);
+    }
+
+    //以下为文件中的原始整数值，供同包的编码器和换算无损读取
+
+    int rawAttenuation() {
+        return attenuation;
+    }
+
+    int rawEventLoss() {
+        return eventLoss;
+    }
+
+    int rawEventReflectance() {
+        return eventReflectance;
+    }
+
+    /**
+     * 标记位置，不复制，不可修改
+     */
+    int[] rawMarkerLocations() {
+        return markerLocations;
+    }
+
+    public int getEventNumber() {
+        return eventNumber;
+    }
+
+    public int getEventPropagationTime() {
+        return eventPropagationTime;
+    }
+
+    public float getAttenuation() {
+        return attenuation / 1000F;
+    }
+
+    public float getEventLoss() {
+        return eventLoss / 1000F;
+    }
+
+    public float getEventReflectance() {
+        return eventReflectance / 1000F;
+    }
+
+    public String getEventCode() {
+        return eventCode;
+    }
+
+    public String getLossMeasurementTechnique() {
+        return lossMeasurementTechnique;
+    }
+
+    public int[] getMarkerLocations() {
+        return markerLocations.clone();
+    }
+
+    public String getComment() {
+        return comment;
+    }
+}
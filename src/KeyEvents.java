@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 关键事件块
+ *
+ * @author coderyong
+ */
+public final class KeyEvents {
+
+    /** 关键事件 */
+    private final List<KeyEvent> events;
+    /** 端到端损耗(0.001dB) */
+    private final int endToEndLoss;
+    /** 端到端标记起始位置 */
+    private final int endToEndMarkerStart;
+    /** 端到端标记结束位置 */
+    private final int endToEndMarkerEnd;
+    /** 光回损(0.001dB) */
+    private final int opticalReturnLoss;
+    /** 光回损标记起始位置 */
+    private final int opticalReturnMarkerStart;
+    /** 光回损标记结束位置 */
+    private final int opticalReturnMarkerEnd;
+
+    KeyEvents(SorCursor cursor) {
+        cursor.skipZString();
+        int eventsNumber = cursor.u16();
+        List<KeyEvent> events = new ArrayList<>(eventsNumber);
+        for (int i = 0; i < eventsNumber; i++) {
+            events.add(new KeyEvent(cursor));
+        }
+        this.events = Collections.unmodifiableList(events);
+
+        endToEndLoss = cursor.i32();
+        endToEndMarkerStart = cursor.i32();
+        endToEndMarkerEnd = cursor.i32();
+        opticalReturnLoss = cursor.u16();
+        opticalReturnMarkerStart = cursor.i32();
+        opticalReturnMarkerEnd = cursor.i32();
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.u16(events.size());
+        for (KeyEvent event : events) {
+            event.write(out);
+        }
+        out.i32(endToEndLoss).i32(endToEndMarkerStart).i32(endToEndMarkerEnd)
+                .u16(opticalReturnLoss).i32(opticalReturnMarkerStart).i32(opticalReturnMarkerEnd);
+    }
+
+    //以下为文件中的原始整数值，供同包的编码器无损读取
+
+    int rawEndToEndLoss() {
+        return endToEndLoss;
+    }
+
+    int rawOpticalReturnLoss() {
+        return opticalReturnLoss;
+    }
+
+    public int getEventsNumber() {
+        return events.size();
+    }
+
+    public List<KeyEvent> getEvents() {
+        return events;
+    }
+
+    public float getEndToEndLoss() {
+        return endToEndLoss / 1000F;
+    }
+
+    public int getEndToEndMarkerStart() {
+        return endToEndMarkerStart;
+    }
+
+    public int getEndToEndMarkerEnd() {
+        return endToEndMarkerEnd;
+    }
+
+    public float getOpticalReturnLoss() {
+        return opticalReturnLoss / 1000F;
+    }
+
+    public int getOpticalReturnMarkerStart() {
+        return opticalReturnMarkerStart;
+    }
+
+    public int getOpticalReturnMarkerEnd() {
+        return opticalReturnMarkerEnd;
+    }
+}
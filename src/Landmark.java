@@ -0,0 +1,106 @@
+/**
+ * 地标
+ *
+ * @author coderyong
+ */
+public final class Landmark {
+
+    /** 地标编号 */
+    private final int landmarkNumber;
+    /** 地标代码 */
+    private final String landmarkCode;
+    /** 地标位置 */
+    private final int landmarkLocation;
+    /** 关联事件编号 */
+    private final int relatedEventNumber;
+    /** GPS经度 */
+    private final int longitude;
+    /** GPS纬度 */
+    private final int latitude;
+    /** 光纤修正系数(0.01%) */
+    private final int correctionFactor;
+    /** 进入地标的护套标记 */
+    private final int enteringLandmark;
+    /** 离开地标的护套标记 */
+    private final int leavingLandmark;
+    /** 离开地标的护套标记单位 */
+    private final String leavingLandmarkUnits;
+    /** 离开地标的模场直径 */
+    private final String diameterLeavingLandmark;
+    /** 备注 */
+    private final String comment;
+
+    Landmark(SorCursor cursor) {
+        landmarkNumber = cursor.u16();
+        landmarkCode = cursor.fixedString(2);
+        landmarkLocation = cursor.i32();
+        relatedEventNumber = cursor.u16();
+        longitude = cursor.i32();
+        latitude = cursor.i32();
+        correctionFactor = cursor.u16();
+        enteringLandmark = cursor.i32();
+        leavingLandmark = cursor.i32();
+        leavingLandmarkUnits = cursor.fixedString(2);
+        diameterLeavingLandmark = cursor.fixedString(2);
+        comment = cursor.zString();
+    }
+
+    /**
+     * 写入地标内容
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.u16(landmarkNumber).fixedString(landmarkCode, 2).i32(landmarkLocation).u16(relatedEventNumber)
+                .i32(longitude).i32(latitude).u16(correctionFactor).i32(enteringLandmark).i32(leavingLandmark)
+                .fixedString(leavingLandmarkUnits, 2).fixedString(diameterLeavingLandmark, 2).zString(comment);
+    }
+
+    public int getLandmarkNumber() {
+        return landmarkNumber;
+    }
+
+    public String getLandmarkCode() {
+        return landmarkCode;
+    }
+
+    public int getLandmarkLocation() {
+        return landmarkLocation;
+    }
+
+    public int getRelatedEventNumber() {
+        return relatedEventNumber;
+    }
+
+    public int getLongitude() {
+        return longitude;
+    }
+
+    public int getLatitude() {
+        return latitude;
+    }
+
+    public float getCorrectionFactor() {
+        return correctionFactor / 100F;
+    }
+
+    public int getEnteringLandmark() {
+        return enteringLandmark;
+    }
+
+    public int getLeavingLandmark() {
+        return leavingLandmark;
+    }
+
+    public String getLeavingLandmarkUnits() {
+        return leavingLandmarkUnits;
+    }
+
+    public String getDiameterLeavingLandmark() {
+        return diameterLeavingLandmark;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+}
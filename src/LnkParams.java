@@ -0,0 +1,44 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 链接参数块
+ *
+ * @author coderyong
+ */
+public final class LnkParams {
+
+    /** 地标 */
+    private final List<Landmark> landmarks;
+
+    LnkParams(SorCursor cursor) {
+        cursor.skipZString();
+        int number = cursor.u16();
+        List<Landmark> landmarks = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            landmarks.add(new Landmark(cursor));
+        }
+        this.landmarks = Collections.unmodifiableList(landmarks);
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.u16(landmarks.size());
+        for (Landmark landmark : landmarks) {
+            landmark.write(out);
+        }
+    }
+
+    public int getLandmarksNumber() {
+        return landmarks.size();
+    }
+
+    public List<Landmark> getLandmarks() {
+        return landmarks;
+    }
+}
@@ -1,7 +1,10 @@
 import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -9,9 +12,6 @@ import java.util.*;
  */
 public class OTDRAnalysis {
 
-    private static int LENGTH_SHORT = 2;
-    private static int LENGTH_LONG = 4;
-
     public static void main(String[] args) throws IOException {
         System.out.println(read("test.sor"));
     }
@@ -23,11 +23,58 @@ public class OTDRAnalysis {
      * @return 区块集合信息
      */
     public static List<Map<String, Object>> read(String fileName) throws IOException {
-        return read(new FileInputStream(fileName));
+        return read(Paths.get(fileName));
+    }
+
+    /**
+     * 读取OTDR文件内容
+     * <p>文件以只读方式映射到内存，各区块直接在映射缓冲区上解析，不做额外拷贝</p>
+     *
+     * @param path 文件路径
+     * @return 区块集合信息
+     */
+    public static List<Map<String, Object>> read(Path path) throws IOException {
+        return toMaps(SorParser.parse(path, null, ParseListener.NONE));
+    }
+
+    /**
+     * 读取OTDR文件中的指定区块
+     * <p>根据Map区块目录直接定位所需区块，其余区块不会被读取，也不会出现在结果中</p>
+     *
+     * @param path     文件路径
+     * @param blockIds 需要读取的区块名称，如"KeyEvents"、"FxdParams"
+     * @return 区块集合信息，第一项始终为Map区块
+     */
+    public static List<Map<String, Object>> read(Path path, Set<String> blockIds) throws IOException {
+        return toMaps(SorParser.parse(path, blockIds));
+    }
+
+    /**
+     * 读取OTDR文件中的指定区块，并向监听回调各区块的解码耗时和Map转换耗时
+     *
+     * @param path     文件路径
+     * @param blockIds 需要读取的区块名称，null表示全部区块
+     * @param listener 解析监听
+     * @return 区块集合信息，第一项始终为Map区块
+     */
+    public static List<Map<String, Object>> read(Path path, Set<String> blockIds, ParseListener listener)
+            throws IOException {
+        return toMaps(SorParser.parse(path, blockIds, listener), listener);
+    }
+
+    /**
+     * 读取OTDR文件通道内容
+     *
+     * @param channel 文件通道
+     * @return 区块集合信息
+     */
+    public static List<Map<String, Object>> read(FileChannel channel) throws IOException {
+        return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
     }
 
     /**
      * 读取OTDR输入流内容
+     * <p>整个输入流先读入内存再解析；不需要保留整个文件时可以使用{@link SorStreamParser}逐个区块回调</p>
      *
      * @param input 文件输入流
      * @return 区块集合信息
@@ -53,536 +100,275 @@ public class OTDRAnalysis {
      * @return 区块集合信息
      */
     public static List<Map<String, Object>> read(byte[] content) {
-        List<Map<String, Object>> blocks = new ArrayList<>();
-        int offset = 0;
-        //创建Map块
-        Map<String, Object> map = new HashMap<>();
-        //读取并设置Map区块名称
-        String mapBlockId = readStringSpaceZero(content, offset);
-        map.put("blockId", mapBlockId);
+        return read(ByteBuffer.wrap(content));
+    }
 
-        offset += mapBlockId.getBytes().length + 1;
-        //读取并设置Map区块版本
-        map.put("version", readInt(content, offset, LENGTH_SHORT));
+    /**
+     * 读取OTDR缓冲区内容
+     * <p>各区块以偏移量/长度视图的形式交给区块解析方法，不拷贝区块字节；
+     * 区块的"content"为{@link BlockContent}只读视图，需要文本时再调用其toString()</p>
+     *
+     * @param content 缓冲区内容，从当前位置开始解析
+     * @return 区块集合信息
+     */
+    public static List<Map<String, Object>> read(ByteBuffer content) {
+        return toMaps(SorParser.parse(content));
+    }
 
-        offset += LENGTH_SHORT;
-        //读取并设置Map区块长度
-        int mapLength = readInt(content, offset, LENGTH_LONG);
-        map.put("length", mapLength);
+    /**
+     * 读取OTDR缓冲区内容中的指定区块
+     *
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要读取的区块名称
+     * @return 区块集合信息，第一项始终为Map区块
+     */
+    public static List<Map<String, Object>> read(ByteBuffer content, Set<String> blockIds) {
+        return toMaps(SorParser.parse(content, blockIds));
+    }
 
-        offset += LENGTH_LONG;
-        //读取并设置区块数
-        map.put("blockCount", readInt(content, offset, LENGTH_SHORT));
+    /**
+     * 读取OTDR缓冲区内容中的指定区块，并向监听回调各区块的解码耗时和Map转换耗时
+     *
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要读取的区块名称，null表示全部区块
+     * @param listener 解析监听
+     * @return 区块集合信息，第一项始终为Map区块
+     */
+    public static List<Map<String, Object>> read(ByteBuffer content, Set<String> blockIds, ParseListener listener) {
+        return toMaps(SorParser.parse(content, blockIds, listener), listener);
+    }
 
-        //设置区块字节内容
-        byte[] mapContent = new byte[mapLength];
-        System.arraycopy(content, 0, mapContent, 0, mapLength);
-        map.put("content", Arrays.toString(mapContent));
-        blocks.add(map);
+    private static List<Map<String, Object>> toMaps(SorFile file, ParseListener listener) {
+        if (listener == ParseListener.NONE) {
+            return toMaps(file);
+        }
+        long start = System.nanoTime();
+        List<Map<String, Object>> blocks = toMaps(file);
+        listener.onMaps(blocks.size(), System.nanoTime() - start);
+        return blocks;
+    }
 
-        offset += LENGTH_SHORT;
-        int contentOffset = mapLength;
-        while (offset < mapLength) {
+    /**
+     * 将类型化解析结果转换为区块集合信息
+     * <p>在{@link SorBlockRegistry}中注册了解码器的其余区块，解码结果放在"value"中</p>
+     *
+     * @param file 解析结果
+     * @return 区块集合信息
+     */
+    public static List<Map<String, Object>> toMaps(SorFile file) {
+        SorMap sorMap = file.getMap();
+        List<Map<String, Object>> blocks = new ArrayList<>(sorMap.getBlocks().size() + 1);
+        //创建Map块
+        Map<String, Object> map = new HashMap<>();
+        map.put("blockId", sorMap.getBlockId());
+        map.put("version", sorMap.getVersion());
+        map.put("length", sorMap.getLength());
+        map.put("blockCount", sorMap.getBlockCount());
+        map.put("content", file.getMapContent());
+        blocks.add(map);
 
+        for (SorBlock sorBlock : sorMap.getBlocks()) {
+            if (!file.isSelected(sorBlock.getBlockId())) {
+                continue;
+            }
             //创建区块
             Map<String, Object> block = new HashMap<>();
-            //读取并设置区块名称
-            String blockId = readStringSpaceZero(content, offset);
-            block.put("blockId", blockId);
-
-            offset += blockId.getBytes().length + 1;
-            //读取并设置区块版本
-            block.put("version", readInt(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            //读取并设置Map区块长度
-            int length = readInt(content, offset, LENGTH_LONG);
-            block.put("length", length);
-            offset += 4;
-
-            //设置区块字节内容
-            byte[] blockContent = new byte[length];
-            System.arraycopy(content, contentOffset, blockContent, 0, length);
-            block.put("content", Arrays.toString(blockContent));
-
-            switch (String.valueOf(block.get("blockId"))) {
-                case "GenParams":
-                    readGenParams(block, blockContent);
+            block.put("blockId", sorBlock.getBlockId());
+            block.put("version", sorBlock.getVersion());
+            block.put("length", sorBlock.getLength());
+            block.put("content", file.getContent(sorBlock));
+
+            switch (sorBlock.type()) {
+                case SorBlockRegistry.GEN_PARAMS:
+                    putGenParams(block, file.getGenParams());
                     break;
-                case "SupParams":
-                    readSupParams(block, blockContent);
+                case SorBlockRegistry.SUP_PARAMS:
+                    putSupParams(block, file.getSupParams());
                     break;
-                case "FxdParams":
-                    readFxdParams(block, blockContent);
+                case SorBlockRegistry.FXD_PARAMS:
+                    putFxdParams(block, file.getFxdParams());
                     break;
-                case "KeyEvents":
-                    readKeyEvents(block, blockContent);
+                case SorBlockRegistry.KEY_EVENTS:
+                    putKeyEvents(block, file.getKeyEvents());
                     break;
-                case "LnkParams":
-                    readLnkParams(block, blockContent);
+                case SorBlockRegistry.LNK_PARAMS:
+                    putLnkParams(block, file.getLnkParams());
                     break;
-                case "DataPts":
-                    readDataPts(block, blockContent);
+                case SorBlockRegistry.DATA_PTS:
+                    putDataPts(block, file.getDataPoints());
                     break;
-                case "Cksum":
-                    readChecksum(block, blockContent);
+                case SorBlockRegistry.CHECKSUM:
+                    putChecksum(block, file.getChecksum());
+                    break;
+                default:
+                    //注册了解码器的厂商区块
+                    Object value = file.getValue(sorBlock);
+                    if (value != null) {
+                        block.put("value", value);
+                    }
                     break;
             }
             blocks.add(block);
-            contentOffset += length;
         }
         return blocks;
     }
 
     /**
-     * 读取一般参数块
+     * 设置一般参数块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block  区块对象
+     * @param params 一般参数块
      */
-    private static void readGenParams(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        block.put("languageCode", readString(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        String cableId = readStringSpaceZero(content, offset);
-        block.put("cableId", cableId);
-
-        offset += cableId.getBytes().length + 1;
-        String fiberId = readStringSpaceZero(content, offset);
-        block.put("fiberID", fiberId);
-
-        offset += fiberId.getBytes().length + 1;
-        block.put("fiberType", readInt(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        block.put("wavelength", readInt(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        String originating = readStringSpaceZero(content, offset);
-        block.put("originatingLocation", originating);
-
-        offset += originating.getBytes().length + 1;
-        String terminating = readStringSpaceZero(content, offset);
-        block.put("terminatingLocation", terminating);
-
-        offset += terminating.getBytes().length + 1;
-        String cableCode = readStringSpaceZero(content, offset);
-        block.put("cableCode", cableCode);
-
-        offset += cableCode.getBytes().length + 1;
-        String flag = readString(content, offset, LENGTH_SHORT);
-        block.put("dataFlag", flag);
-
-        offset += LENGTH_SHORT;
-        block.put("userOffset", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("userOffsetDistance", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        String operator = readStringSpaceZero(content, offset);
-        block.put("operator", operator);
-
-        offset += operator.getBytes().length + 1;
-        String comment = readStringSpaceZero(content, offset);
-        block.put("comment", comment);
+    private static void putGenParams(Map<String, Object> block, GenParams params) {
+        block.put("languageCode", params.getLanguageCode());
+        block.put("cableId", params.getCableId());
+        block.put("fiberID", params.getFiberId());
+        block.put("fiberType", params.getFiberType());
+        block.put("wavelength", params.getWavelength());
+        block.put("originatingLocation", params.getOriginatingLocation());
+        block.put("terminatingLocation", params.getTerminatingLocation());
+        block.put("cableCode", params.getCableCode());
+        block.put("dataFlag", params.getDataFlag());
+        block.put("userOffset", params.getUserOffset());
+        block.put("userOffsetDistance", params.getUserOffsetDistance());
+        block.put("operator", params.getOperator());
+        block.put("comment", params.getComment());
     }
 
     /**
-     * 读取供应商参数块
+     * 设置供应商参数块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block  区块对象
+     * @param params 供应商参数块
      */
-    private static void readSupParams(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        String supplierName = readStringSpaceZero(content, offset);
-        block.put("supplierName", supplierName);
-
-        offset += supplierName.getBytes().length + 1;
-        String mainframeId = readStringSpaceZero(content, offset);
-        block.put("mainframeId", mainframeId);
-
-        offset += mainframeId.getBytes().length + 1;
-        String mainframeSOrN = readStringSpaceZero(content, offset);
-        block.put("mainframeSOrN", mainframeSOrN);
-
-        offset += mainframeSOrN.getBytes().length + 1;
-        String moduleId = readStringSpaceZero(content, offset);
-        block.put("opticalModuleId", moduleId);
-
-        offset += moduleId.getBytes().length + 1;
-        String moduleSOrN = readStringSpaceZero(content, offset);
-        block.put("opticalModuleSOrN", moduleSOrN);
-
-        offset += moduleSOrN.getBytes().length + 1;
-        String revision = readStringSpaceZero(content, offset);
-        block.put("softwareRevision", revision);
-
-        offset += revision.getBytes().length + 1;
-        String other = readStringSpaceZero(content, offset);
-        block.put("other", other);
+    private static void putSupParams(Map<String, Object> block, SupParams params) {
+        block.put("supplierName", params.getSupplierName());
+        block.put("mainframeId", params.getMainframeId());
+        block.put("mainframeSOrN", params.getMainframeSOrN());
+        block.put("opticalModuleId", params.getOpticalModuleId());
+        block.put("opticalModuleSOrN", params.getOpticalModuleSOrN());
+        block.put("softwareRevision", params.getSoftwareRevision());
+        block.put("other", params.getOther());
     }
 
     /**
-     * 读取固定参数块
+     * 设置固定参数块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block  区块对象
+     * @param params 固定参数块
      */
-    private static void readFxdParams(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        block.put("timeStamp", readInt(content, offset, LENGTH_LONG) * 1000);
-
-        offset += LENGTH_LONG;
-        block.put("distanceUnits", readString(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        block.put("actualWavelength", readInt(content, offset, LENGTH_SHORT) / 10);
-
-        offset += LENGTH_SHORT;
-        block.put("acquisitionOffset", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("acquisitionOffsetDistance", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        int pulseNumber = readInt(content, offset, LENGTH_SHORT);
-        block.put("pulseNumber", pulseNumber);
-
-        offset += LENGTH_SHORT;
-        int[] pulseWidths = new int[pulseNumber];
-        for (int i = 0; i < pulseNumber; i++) {
-            pulseWidths[i] = readInt(content, offset, LENGTH_SHORT);
-            offset += LENGTH_SHORT;
-        }
-        block.put("pulseWidths", pulseWidths);
-
-        float[] dataSpacing = new float[pulseNumber];
-        for (int i = 0; i < pulseNumber; i++) {
-            dataSpacing[i] = readInt(content, offset, LENGTH_LONG) / 10000F;
-            offset += LENGTH_LONG;
-        }
-        block.put("dataSpacing", dataSpacing);
-
-        int[] dataPoints = new int[pulseNumber];
-        for (int i = 0; i < pulseNumber; i++) {
-            dataPoints[i] = readInt(content, offset, LENGTH_LONG);
-            offset += LENGTH_LONG;
-        }
-        block.put("dataPoints", dataPoints);
-
-        block.put("groupIndex", readInt(content, offset, LENGTH_LONG) / 100000F);
-
-        offset += LENGTH_LONG;
-        block.put("backscatterCoefficient", readInt(content, offset, LENGTH_SHORT) / 10F);
-
-        offset += LENGTH_SHORT;
-        block.put("averages", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("averagingTime", readInt(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        block.put("acquisitionRange", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("acquisitionRangeDistance", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("frontPanelOffset", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("noiseFloorLevel", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        offset += LENGTH_SHORT;
-        block.put("noiseFloorScaleFactor", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        offset += LENGTH_SHORT;
-        block.put("powerOffsetFirstPoint", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        offset += LENGTH_SHORT;
-        block.put("lossThreshold", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        offset += LENGTH_SHORT;
-        block.put("reflectanceThreshold", readInt(content, offset, LENGTH_SHORT) / -1000F);
-
-        offset += LENGTH_SHORT;
-        block.put("endThreshold", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        offset += LENGTH_SHORT;
-        String traceType = readString(content, offset, LENGTH_SHORT);
-        block.put("traceType", traceType);
-
-        offset += LENGTH_SHORT;
-        int[] coordinates = new int[4];
-        for (int i = 0; i < coordinates.length; i++) {
-            coordinates[i] = readInt(content, offset, 4);
-            offset += 4;
-        }
-        block.put("windowCoordinates", coordinates);
+    private static void putFxdParams(Map<String, Object> block, FxdParams params) {
+        block.put("timeStamp", (int) params.getTimeStamp() * 1000);
+        block.put("distanceUnits", params.getDistanceUnits());
+        block.put("actualWavelength", params.getActualWavelength());
+        block.put("acquisitionOffset", params.getAcquisitionOffset());
+        block.put("acquisitionOffsetDistance", params.getAcquisitionOffsetDistance());
+        block.put("pulseNumber", params.getPulseNumber());
+        block.put("pulseWidths", params.getPulseWidths());
+        block.put("dataSpacing", params.getDataSpacing());
+        block.put("dataPoints", params.getDataPoints());
+        block.put("groupIndex", params.getGroupIndex());
+        block.put("backscatterCoefficient", params.getBackscatterCoefficient());
+        block.put("averages", params.getAverages());
+        block.put("averagingTime", params.getAveragingTime());
+        block.put("acquisitionRange", params.getAcquisitionRange());
+        block.put("acquisitionRangeDistance", params.getAcquisitionRangeDistance());
+        block.put("frontPanelOffset", params.getFrontPanelOffset());
+        block.put("noiseFloorLevel", params.getNoiseFloorLevel());
+        block.put("noiseFloorScaleFactor", params.getNoiseFloorScaleFactor());
+        block.put("powerOffsetFirstPoint", params.getPowerOffsetFirstPoint());
+        block.put("lossThreshold", params.getLossThreshold());
+        block.put("reflectanceThreshold", params.getReflectanceThreshold());
+        block.put("endThreshold", params.getEndThreshold());
+        block.put("traceType", params.getTraceType());
+        block.put("windowCoordinates", params.getWindowCoordinates());
     }
 
     /**
-     * 读取关键事件块
+     * 设置关键事件块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block     区块对象
+     * @param keyEvents 关键事件块
      */
-    private static void readKeyEvents(Map<String, Object> block, byte[] content) {
-        int offset = 0;
+    private static void putKeyEvents(Map<String, Object> block, KeyEvents keyEvents) {
+        block.put("eventsNumber", keyEvents.getEventsNumber());
 
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        int eventsNumber = readInt(content, offset, LENGTH_SHORT);
-        block.put("eventsNumber", eventsNumber);
-
-        offset += LENGTH_SHORT;
-        List<Map<String, Object>> events = new ArrayList<>();
-        for (int i = 0; i < eventsNumber; i++) {
+        List<Map<String, Object>> events = new ArrayList<>(keyEvents.getEventsNumber());
+        for (KeyEvent keyEvent : keyEvents.getEvents()) {
             Map<String, Object> event = new HashMap<>();
-            event.put("eventNumber", readInt(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            event.put("eventPropagationTime", readInt(content, offset, LENGTH_LONG));
-
-            offset += LENGTH_LONG;
-            event.put("attenuation", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-            offset += LENGTH_SHORT;
-            event.put("eventLoss", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-            offset += LENGTH_SHORT;
-            event.put("eventReflectance", readInt(content, offset, LENGTH_LONG) / 1000F);
-
-            offset += LENGTH_LONG;
-            event.put("eventCode", readString(content, offset, 6));
-
-            offset += 6;
-            event.put("lossMeasurementTechnique", readString(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            int[] markerLocations = new int[5];
-            for (int j = 0; j < markerLocations.length; j++) {
-                markerLocations[j] = readInt(content, offset, LENGTH_LONG);
-                offset += LENGTH_LONG;
-            }
-            event.put("markerLocations", markerLocations);
-
-            String comment = readStringSpaceZero(content, offset);
-            event.put("comment", comment);
-
-            offset += comment.getBytes().length + 1;
+            event.put("eventNumber", keyEvent.getEventNumber());
+            event.put("eventPropagationTime", keyEvent.getEventPropagationTime());
+            event.put("attenuation", keyEvent.getAttenuation());
+            event.put("eventLoss", keyEvent.getEventLoss());
+            event.put("eventReflectance", keyEvent.getEventReflectance());
+            event.put("eventCode", keyEvent.getEventCode());
+            event.put("lossMeasurementTechnique", keyEvent.getLossMeasurementTechnique());
+            event.put("markerLocations", keyEvent.getMarkerLocations());
+            event.put("comment", keyEvent.getComment());
             events.add(event);
         }
         block.put("events", events);
 
-        block.put("End-to-EndLoss", readInt(content, offset, LENGTH_LONG) / 1000F);
-
-        int[] markerPositions = new int[2];
-        offset += LENGTH_LONG;
-        markerPositions[0] = readInt(content, offset, LENGTH_LONG);
-        offset += LENGTH_LONG;
-        markerPositions[1] = readInt(content, offset, LENGTH_LONG);
-        block.put("End-to-EndMarkerPositions", markerPositions);
-
-        offset += LENGTH_LONG;
-        block.put("opticalReturnLoss", readInt(content, offset, LENGTH_SHORT) / 1000F);
-
-        int[] returnLossPosition = new int[2];
-        offset += LENGTH_SHORT;
-        returnLossPosition[0] = readInt(content, offset, LENGTH_LONG);
-        offset += LENGTH_LONG;
-        returnLossPosition[1] = readInt(content, offset, LENGTH_LONG);
-        block.put("opticalReturnMarkerPosition", returnLossPosition);
+        block.put("End-to-EndLoss", keyEvents.getEndToEndLoss());
+        block.put("End-to-EndMarkerPositions",
+                new int[]{keyEvents.getEndToEndMarkerStart(), keyEvents.getEndToEndMarkerEnd()});
+        block.put("opticalReturnLoss", keyEvents.getOpticalReturnLoss());
+        block.put("opticalReturnMarkerPosition",
+                new int[]{keyEvents.getOpticalReturnMarkerStart(), keyEvents.getOpticalReturnMarkerEnd()});
     }
 
     /**
-     * 读取链接参数块
+     * 设置链接参数块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block     区块对象
+     * @param lnkParams 链接参数块
      */
-    private static void readLnkParams(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
+    private static void putLnkParams(Map<String, Object> block, LnkParams lnkParams) {
+        block.put("landmarksNumber", lnkParams.getLandmarksNumber());
 
-        offset += blockId.getBytes().length + 1;
-        int number = readInt(content, offset, LENGTH_SHORT);
-        block.put("landmarksNumber", number);
-
-        offset += LENGTH_SHORT;
-        List<Map<String, Object>> landmarks = new ArrayList<>();
-        for (int i = 0; i < number; i++) {
+        List<Map<String, Object>> landmarks = new ArrayList<>(lnkParams.getLandmarksNumber());
+        for (Landmark mark : lnkParams.getLandmarks()) {
             Map<String, Object> landmark = new HashMap<>();
-            landmark.put("landmarkNumber", readInt(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            landmark.put("landmarkCode", readString(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            landmark.put("landmarkLocation", readInt(content, offset, LENGTH_LONG));
-
-            offset += LENGTH_LONG;
-            landmark.put("relatedEventNumber", readInt(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            int[] gps = new int[2];
-            for (int j = 0; j < gps.length; j++) {
-                gps[j] = readInt(content, offset, LENGTH_LONG);
-                offset += LENGTH_LONG;
-            }
-            landmark.put("GPSInformation", gps);
-
-            landmark.put("correctionFactor", readInt(content, offset, LENGTH_SHORT) / 100F + "%");
-
-            offset += LENGTH_SHORT;
-            landmark.put("enteringLandmark", readInt(content, offset, LENGTH_LONG));
-
-            offset += LENGTH_LONG;
-            int leavingLandmark = readInt(content, offset, LENGTH_LONG);
-
-            offset += LENGTH_LONG;
-            String units = readString(content, offset, LENGTH_SHORT);
-            landmark.put("leavingLandmark", leavingLandmark + units);
-
-            offset += LENGTH_SHORT;
-            landmark.put("diameterLeavingLandmark", readString(content, offset, LENGTH_SHORT));
-
-            offset += LENGTH_SHORT;
-            landmark.put("comment", readStringSpaceZero(content, offset));
+            landmark.put("landmarkNumber", mark.getLandmarkNumber());
+            landmark.put("landmarkCode", mark.getLandmarkCode());
+            landmark.put("landmarkLocation", mark.getLandmarkLocation());
+            landmark.put("relatedEventNumber", mark.getRelatedEventNumber());
+            landmark.put("GPSInformation", new int[]{mark.getLongitude(), mark.getLatitude()});
+            landmark.put("correctionFactor", mark.getCorrectionFactor() + "%");
+            landmark.put("enteringLandmark", mark.getEnteringLandmark());
+            landmark.put("leavingLandmark", mark.getLeavingLandmark() + mark.getLeavingLandmarkUnits());
+            landmark.put("diameterLeavingLandmark", mark.getDiameterLeavingLandmark());
+            landmark.put("comment", mark.getComment());
             landmarks.add(landmark);
         }
         block.put("landmarks", landmarks);
     }
 
     /**
-     * 读取数据点块
+     * 设置数据点块
      *
-     * @param block   区块对象
-     * @param content 区块字节内容
+     * @param block      区块对象
+     * @param dataPoints 数据点块
      */
-    private static void readDataPts(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        block.put("pointsNumber", readInt(content, offset, LENGTH_LONG));
-
-        offset += LENGTH_LONG;
-        block.put("scaleFactors", readInt(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        int number = readInt(content, offset, LENGTH_LONG);
-        block.put("totalScaleFactors", number);
-
-        offset += LENGTH_LONG;
-        block.put("scaleFactor1", readInt(content, offset, LENGTH_SHORT));
-
-        offset += LENGTH_SHORT;
-        int[] data = new int[number];
-        for (int i = 0; i < number; i++) {
-            data[i] = readInt(content, offset, 2);
-            offset += LENGTH_SHORT;
+    private static void putDataPts(Map<String, Object> block, DataPoints dataPoints) {
+        block.put("pointsNumber", dataPoints.getPointsNumber());
+        block.put("scaleFactors", dataPoints.getScaleFactorCount());
+        if (dataPoints.getScaleFactorCount() > 0) {
+            block.put("totalScaleFactors", dataPoints.getGroupPoints(0));
+            block.put("scaleFactor1", dataPoints.getScaleFactor(0));
         }
+        int[] data = new int[dataPoints.size()];
+        dataPoints.copyRaw(data, 0);
         block.put("scaleFactorN", data);
-
-    }
-
-    /**
-     * 读取校验块
-     *
-     * @param block   区块对象
-     * @param content 区块字节内容
-     */
-    private static void readChecksum(Map<String, Object> block, byte[] content) {
-        int offset = 0;
-
-        String blockId = readStringSpaceZero(content, offset);
-        block.put("blockId", blockId);
-
-        offset += blockId.getBytes().length + 1;
-        block.put("checksum", readInt(content, offset, LENGTH_SHORT));
-    }
-
-    /**
-     * 读取整型数
-     *
-     * @param b      字节内容
-     * @param offset 起始位置偏移量
-     * @param length 整型数字节长度 {@link #LENGTH_SHORT,#LENGTH_LONG}
-     * @return "小端" 整型数值
-     */
-    private static int readInt(byte[] b, int offset, int length) {
-        byte[] bytes = new byte[LENGTH_LONG];
-        System.arraycopy(b, offset, bytes, 0, length);
-        return bytesToInt(bytes);
-    }
-
-    /**
-     * byte[]转int
-     * <p>由低位到高位</P>
-     *
-     * @param bytes 字节数组
-     * @return 整型int
-     */
-    private static int bytesToInt(byte[] bytes) {
-        int value = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            int shift = i * 8;
-            value += (bytes[i] & 0x000000FF) << shift;
-        }
-        return value;
-    }
-
-    /**
-     * 读取以0为结束符的字符串
-     *
-     * @param b      字节内容
-     * @param offset 起始位置偏移量
-     * @return UTF-8字符串
-     */
-    private static String readStringSpaceZero(byte[] b, int offset) {
-        int length = 0;
-        while (length + offset <= b.length && b[length + offset] != 0) {
-            length++;
-        }
-        return readString(b, offset, length);
     }
 
     /**
-     * 读取字符串
+     * 设置校验块
      *
-     * @param b      字节内容
-     * @param offset 起始位置偏移量
-     * @param length 读取长度
-     * @return UTF-8字符串
+     * @param block    区块对象
+     * @param checksum 校验块
      */
-    private static String readString(byte[] b, int offset, int length) {
-        byte[] bytes = new byte[length];
-        System.arraycopy(b, offset, bytes, 0, length);
-        return new String(bytes);
+    private static void putChecksum(Map<String, Object> block, Checksum checksum) {
+        block.put("checksum", checksum.getChecksum());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+import java.nio.file.Path;
+
+/**
+ * 解析过程监听
+ * <p>按区块、文件和批次记录耗时、字节数和对象数，用于定位慢在读取、哪个区块的解码还是Map转换。
+ * 回调在解析线程中同步执行，实现类需要保证线程安全并尽量轻量。
+ * 使用{@link #NONE}时解析器不读取时钟也不回调，与不带监听的解析相同</p>
+ *
+ * @author coderyong
+ * @see ParseHistogram
+ */
+public interface ParseListener {
+
+    /** 不做任何记录的监听 */
+    ParseListener NONE = new ParseListener() {
+    };
+
+    /**
+     * 文件内容读取完成(批量解析和目录监听中的文件读取)
+     *
+     * @param path  文件路径
+     * @param bytes 字节数
+     * @param nanos 耗时(纳秒)
+     */
+    default void onRead(Path path, long bytes, long nanos) {
+    }
+
+    /**
+     * 区块解码完成
+     *
+     * @param blockId 区块名称
+     * @param length  区块字节数
+     * @param objects 解码得到的记录数：KeyEvents为事件数，LnkParams为地标数，DataPts为数据点数，其余区块为1
+     * @param nanos   耗时(纳秒)
+     */
+    default void onBlock(String blockId, int length, int objects, long nanos) {
+    }
+
+    /**
+     * 文件解析完成，耗时包括Map区块和各区块的解码
+     *
+     * @param path   文件路径，解析缓冲区时为null
+     * @param bytes  文件字节数
+     * @param blocks 解码的区块数
+     * @param nanos  耗时(纳秒)
+     */
+    default void onFile(Path path, long bytes, int blocks, long nanos) {
+    }
+
+    /**
+     * 解析结果转换为区块集合信息完成
+     *
+     * @param blocks 区块数(含Map区块)
+     * @param nanos  耗时(纳秒)
+     */
+    default void onMaps(int blocks, long nanos) {
+    }
+
+    /**
+     * 批量解析完成
+     *
+     * @param stats 统计信息
+     */
+    default void onBatch(SorBatchStats stats) {
+    }
+}
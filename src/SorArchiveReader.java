@@ -0,0 +1,370 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 曲线归档读取
+ * <p>打开归档时映射整个文件并只解码文件末尾的索引区，各列数据常驻内存；
+ * 数据点在访问时才从映射区解码，因此可按序号、光纤和测量时间随机读取单条曲线。
+ * 归档文件不能超过2GB；读取方法线程安全</p>
+ *
+ * @author coderyong
+ * @see SorArchiveWriter
+ */
+public final class SorArchiveReader {
+
+    private final ByteBuffer content;
+    private final int size;
+
+    //光纤表
+    final String[] cableIds;
+    final String[] fiberIds;
+    final int[] wavelengths;
+    /** 光纤表键到序号 */
+    private final Map<String, Integer> fiberIndex = new HashMap<>();
+    /** 各光纤按测量时间排序的曲线序号 */
+    private final int[][] fiberTraces;
+    /** 事件代码表 */
+    final String[] codes;
+
+    //曲线列
+    final int[] fiber;
+    final long[] timeStamp;
+    final int[] actualWavelength;
+    final int[] pulseWidth;
+    final int[] dataSpacing;
+    final int[] groupIndex;
+    final int[] backscatterCoefficient;
+    final int[] averages;
+    final int[] acquisitionRange;
+    final int[] acquisitionOffset;
+    final int[] frontPanelOffset;
+    final int[] noiseFloorLevel;
+    final int[] lossThreshold;
+    final int[] reflectanceThreshold;
+    final int[] endThreshold;
+    final int[] endToEndLoss;
+    final int[] opticalReturnLoss;
+    /** 各曲线第一个事件在事件列中的位置，最后一项为事件总数 */
+    final int[] eventStart;
+    /** 各曲线第一个分组在分组列中的位置，最后一项为分组总数 */
+    final int[] groupStart;
+    final int[] pointsNumber;
+    final int[] sampleCount;
+    final long[] sampleOffset;
+    /** 压缩后的其余区块 */
+    final long[] blocksOffset;
+    final int[] blocksLength;
+
+    //分组列
+    final int[] groupPoints;
+    final int[] scaleFactor;
+
+    //事件列
+    final int[] eventPropagationTime;
+    final int[] attenuation;
+    final int[] eventLoss;
+    final int[] eventReflectance;
+    final int[] eventCode;
+
+    /**
+     * @param path 归档文件路径
+     */
+    public SorArchiveReader(Path path) throws IOException {
+        this(map(path));
+    }
+
+    /**
+     * @param content 归档文件内容
+     */
+    public SorArchiveReader(ByteBuffer content) {
+        this.content = content.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int length = this.content.limit();
+        if (length < SorArchiveWriter.HEADER_LENGTH + SorArchiveWriter.TRAILER_LENGTH
+                || this.content.getInt(0) != SorArchiveWriter.MAGIC
+                || this.content.getInt(length - 4) != SorArchiveWriter.MAGIC) {
+            throw new IllegalArgumentException("not a SOR archive");
+        }
+        int version = this.content.getShort(4) & 0xFFFF;
+        if (version != SorArchiveWriter.VERSION) {
+            throw new IllegalArgumentException("unsupported archive version " + version);
+        }
+        long footerOffset = this.content.getLong(length - SorArchiveWriter.TRAILER_LENGTH);
+        if (footerOffset < SorArchiveWriter.HEADER_LENGTH || footerOffset > length - SorArchiveWriter.TRAILER_LENGTH) {
+            throw new IllegalArgumentException("invalid footer offset " + footerOffset);
+        }
+        SorCursor cursor = new SorCursor(this.content)
+                .range((int) footerOffset, length - SorArchiveWriter.TRAILER_LENGTH - (int) footerOffset);
+
+        size = cursor.i32();
+        int fibers = cursor.i32();
+        cableIds = new String[fibers];
+        fiberIds = new String[fibers];
+        wavelengths = new int[fibers];
+        for (int i = 0; i < fibers; i++) {
+            cableIds[i] = cursor.zString();
+            fiberIds[i] = cursor.zString();
+            wavelengths[i] = cursor.u16();
+            fiberIndex.put(key(cableIds[i], fiberIds[i], wavelengths[i]), i);
+        }
+        codes = new String[cursor.i32()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = cursor.zString();
+        }
+
+        fiber = ints(cursor, size);
+        timeStamp = longs(cursor, size);
+        actualWavelength = ints(cursor, size);
+        pulseWidth = ints(cursor, size);
+        dataSpacing = ints(cursor, size);
+        groupIndex = ints(cursor, size);
+        backscatterCoefficient = ints(cursor, size);
+        averages = ints(cursor, size);
+        acquisitionRange = ints(cursor, size);
+        acquisitionOffset = ints(cursor, size);
+        frontPanelOffset = ints(cursor, size);
+        noiseFloorLevel = ints(cursor, size);
+        lossThreshold = ints(cursor, size);
+        reflectanceThreshold = ints(cursor, size);
+        endThreshold = ints(cursor, size);
+        endToEndLoss = ints(cursor, size);
+        opticalReturnLoss = ints(cursor, size);
+        eventStart = starts(ints(cursor, size));
+        groupStart = starts(ints(cursor, size));
+        pointsNumber = ints(cursor, size);
+        sampleCount = ints(cursor, size);
+        sampleOffset = longs(cursor, size);
+        blocksOffset = longs(cursor, size);
+        blocksLength = ints(cursor, size);
+
+        int groups = cursor.i32();
+        groupPoints = ints(cursor, groups);
+        scaleFactor = ints(cursor, groups);
+
+        int events = cursor.i32();
+        eventPropagationTime = ints(cursor, events);
+        attenuation = ints(cursor, events);
+        eventLoss = ints(cursor, events);
+        eventReflectance = ints(cursor, events);
+        eventCode = ints(cursor, events);
+
+        fiberTraces = new int[fibers][];
+        for (int i = 0; i < fibers; i++) {
+            fiberTraces[i] = ints(cursor, cursor.i32());
+        }
+    }
+
+    /**
+     * 曲线数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按序号读取曲线
+     * <p>只返回视图，数据点在调用{@link ArchivedTrace#getDataPoints()}时才解码</p>
+     *
+     * @param index 添加顺序的序号
+     * @return 曲线
+     */
+    public ArchivedTrace get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return new ArchivedTrace(this, index);
+    }
+
+    /**
+     * 查找一条光纤的全部曲线
+     *
+     * @param cableId    光缆编号
+     * @param fiberId    光纤编号
+     * @param wavelength 波长(nm)
+     * @return 按测量时间排序的曲线序号，没有时返回空数组
+     */
+    public int[] find(String cableId, String fiberId, int wavelength) {
+        Integer index = fiberIndex.get(key(cableId, fiberId, wavelength));
+        return index == null ? new int[0] : fiberTraces[index].clone();
+    }
+
+    /**
+     * 查找一条光纤在指定时间范围内的曲线
+     *
+     * @param cableId    光缆编号
+     * @param fiberId    光纤编号
+     * @param wavelength 波长(nm)
+     * @param from       起始测量时间(秒，含)
+     * @param to         结束测量时间(秒，不含)
+     * @return 按测量时间排序的曲线序号，没有时返回空数组
+     */
+    public int[] find(String cableId, String fiberId, int wavelength, long from, long to) {
+        Integer index = fiberIndex.get(key(cableId, fiberId, wavelength));
+        if (index == null) {
+            return new int[0];
+        }
+        int[] traces = fiberTraces[index];
+        int start = lowerBound(traces, from);
+        return Arrays.copyOfRange(traces, start, Math.max(start, lowerBound(traces, to)));
+    }
+
+    /**
+     * 查找一条光纤在指定时间之前(含)的最后一条曲线
+     *
+     * @param cableId    光缆编号
+     * @param fiberId    光纤编号
+     * @param wavelength 波长(nm)
+     * @param time       测量时间(秒)
+     * @return 曲线序号，没有时返回-1
+     */
+    public int findLatest(String cableId, String fiberId, int wavelength, long time) {
+        Integer index = fiberIndex.get(key(cableId, fiberId, wavelength));
+        if (index == null) {
+            return -1;
+        }
+        int[] traces = fiberTraces[index];
+        int end = lowerBound(traces, time + 1);
+        return end == 0 ? -1 : traces[end - 1];
+    }
+
+    /**
+     * 解码一条曲线的数据点
+     *
+     * @param index 曲线序号
+     * @return 数据点，曲线没有数据点时返回null
+     */
+    DataPoints decode(int index) {
+        int groups = groupStart[index + 1] - groupStart[index];
+        if (groups == 0 && sampleCount[index] == 0) {
+            return null;
+        }
+        short[] samples = new short[sampleCount[index]];
+        unpack(content, (int) sampleOffset[index], samples);
+        return new DataPoints(pointsNumber[index],
+                Arrays.copyOfRange(groupPoints, groupStart[index], groupStart[index + 1]),
+                Arrays.copyOfRange(scaleFactor, groupStart[index], groupStart[index + 1]), samples);
+    }
+
+    /**
+     * 重建一条曲线的原文件：解压其余区块，再写回解码后的数据点
+     *
+     * @param index 曲线序号
+     * @return 解析结果，Map区块中的区块长度和校验和重新计算
+     */
+    SorFile rebuild(int index) {
+        ByteBuffer compressed = content.duplicate();
+        compressed.position((int) blocksOffset[index]).limit((int) blocksOffset[index] + blocksLength[index]);
+        byte[] input = new byte[blocksLength[index]];
+        compressed.get(input);
+        Inflater inflater = new Inflater();
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream(input.length * 4);
+        try {
+            inflater.setInput(input);
+            byte[] buffer = new byte[8 * 1024];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("truncated blocks of trace " + index);
+                }
+                blocks.write(buffer, 0, length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt blocks of trace " + index, e);
+        } finally {
+            inflater.end();
+        }
+        SorFile file = SorParser.parse(blocks.toByteArray());
+        DataPoints dataPoints = decode(index);
+        return dataPoints == null ? file : SorParser.parse(new SorWriter(file).setDataPoints(dataPoints).toByteArray());
+    }
+
+    /**
+     * 与{@link SorArchiveWriter}的编码对应：逐块读取位宽，从低位拆出zigzag差分值并累加
+     *
+     * @param content 归档内容
+     * @param offset  数据点起始位置
+     * @param samples 解码结果
+     */
+    static void unpack(ByteBuffer content, int offset, short[] samples) {
+        int position = offset;
+        int previous = 0;
+        for (int start = 0; start < samples.length; start += SorArchiveWriter.BLOCK_POINTS) {
+            int end = Math.min(start + SorArchiveWriter.BLOCK_POINTS, samples.length);
+            int width = content.get(position++);
+            int mask = (1 << width) - 1;
+            long buffer = 0;
+            int filled = 0;
+            for (int i = start; i < end; i++) {
+                while (filled < width) {
+                    buffer |= (long) (content.get(position++) & 0xFF) << filled;
+                    filled += 8;
+                }
+                int zigzag = (int) buffer & mask;
+                buffer >>>= width;
+                filled -= width;
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                samples[i] = (short) previous;
+            }
+        }
+    }
+
+    private int lowerBound(int[] traces, long time) {
+        int low = 0;
+        int high = traces.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timeStamp[traces[middle]] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String key(String cableId, String fiberId, int wavelength) {
+        return cableId + '\0' + fiberId + '\0' + wavelength;
+    }
+
+    private static int[] ints(SorCursor cursor, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = cursor.i32();
+        }
+        return values;
+    }
+
+    private static long[] longs(SorCursor cursor, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = cursor.i64();
+        }
+        return values;
+    }
+
+    /**
+     * 由各曲线的个数计算起始位置
+     */
+    private static int[] starts(int[] counts) {
+        int[] starts = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+        return starts;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,411 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * 曲线归档写入
+ * <p>把大量解析结果按列存放在一个归档文件中：文件头之后依次是各条曲线的数据点和其余区块，
+ * 数据点按块做差分、zigzag编码后按块内最大位宽紧凑存放；其余区块(Map、GenParams、SupParams、FxdParams、KeyEvents、
+ * LnkParams、厂商区块和Cksum)以不含数据点的SOR文件形式原样保存并用Deflate压缩，
+ * 因此可以由{@link ArchivedTrace#toSorFile()}重建原文件。GenParams/FxdParams的常用标量字段、
+ * KeyEvents的各事件字段另外按列保存在文件末尾的索引区，用于不解压即可查询；
+ * 索引区还包含按光纤分组、按测量时间排序的曲线序号</p>
+ * <p>文件结构(小端)：</p>
+ * <pre>
+ * 文件头    "SORA" 版本号(2字节)
+ * 数据区    每条曲线：若干数据块(位宽1字节 + 紧凑存放的差分值)，压缩后的其余区块
+ * 索引区    曲线数、光纤表、事件代码表、曲线列、分组列、事件列、光纤索引
+ * 文件尾    索引区偏移(8字节) "SORA"
+ * </pre>
+ * <p>数据点在添加时立即写出，内存中只保留各列数据；非线程安全</p>
+ *
+ * @author coderyong
+ * @see SorArchiveReader
+ */
+public class SorArchiveWriter implements Closeable {
+
+    /** 文件标识"SORA" */
+    static final int MAGIC = 0x41524F53;
+    static final int VERSION = 2;
+    /** 每个数据块的数据点数 */
+    static final int BLOCK_POINTS = 128;
+    /** 文件头长度 */
+    static final int HEADER_LENGTH = 6;
+    /** 文件尾长度 */
+    static final int TRAILER_LENGTH = 12;
+
+    private final OutputStream out;
+    private long position;
+    private boolean closed;
+    /** 单条曲线数据点的编码缓冲区 */
+    private final SorEncoder samples = new SorEncoder(64 * 1024);
+    private final int[] block = new int[BLOCK_POINTS];
+    /** 其余区块的压缩器，每条曲线重置后复用 */
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final byte[] deflated = new byte[8 * 1024];
+
+    /** 光纤表，键为"光缆编号\0光纤编号\0波长" */
+    private final Map<String, Integer> fiberIndex = new HashMap<>();
+    private final List<String[]> fibers = new ArrayList<>();
+    /** 事件代码表 */
+    private final Map<String, Integer> codeIndex = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+
+    //曲线列，每条曲线一个值
+    private final IntColumn fiber = new IntColumn();
+    private final LongColumn timeStamp = new LongColumn();
+    private final IntColumn actualWavelength = new IntColumn();
+    private final IntColumn pulseWidth = new IntColumn();
+    private final IntColumn dataSpacing = new IntColumn();
+    private final IntColumn groupIndex = new IntColumn();
+    private final IntColumn backscatterCoefficient = new IntColumn();
+    private final IntColumn averages = new IntColumn();
+    private final IntColumn acquisitionRange = new IntColumn();
+    private final IntColumn acquisitionOffset = new IntColumn();
+    private final IntColumn frontPanelOffset = new IntColumn();
+    private final IntColumn noiseFloorLevel = new IntColumn();
+    private final IntColumn lossThreshold = new IntColumn();
+    private final IntColumn reflectanceThreshold = new IntColumn();
+    private final IntColumn endThreshold = new IntColumn();
+    private final IntColumn endToEndLoss = new IntColumn();
+    private final IntColumn opticalReturnLoss = new IntColumn();
+    private final IntColumn eventCount = new IntColumn();
+    private final IntColumn groupCount = new IntColumn();
+    private final IntColumn pointsNumber = new IntColumn();
+    private final IntColumn sampleCount = new IntColumn();
+    private final LongColumn sampleOffset = new LongColumn();
+    private final LongColumn blocksOffset = new LongColumn();
+    private final IntColumn blocksLength = new IntColumn();
+
+    //分组列，每个比例因子分组一个值
+    private final IntColumn groupPoints = new IntColumn();
+    private final IntColumn scaleFactor = new IntColumn();
+
+    //事件列，每个事件一个值
+    private final IntColumn eventPropagationTime = new IntColumn();
+    private final IntColumn attenuation = new IntColumn();
+    private final IntColumn eventLoss = new IntColumn();
+    private final IntColumn eventReflectance = new IntColumn();
+    private final IntColumn eventCode = new IntColumn();
+
+    /**
+     * @param path 归档文件路径，已存在的文件将被覆盖
+     */
+    public SorArchiveWriter(Path path) throws IOException {
+        this(new BufferedOutputStream(Files.newOutputStream(path), 256 * 1024));
+    }
+
+    /**
+     * @param out 输出流，关闭归档时一并关闭
+     */
+    public SorArchiveWriter(OutputStream out) throws IOException {
+        this.out = out;
+        SorEncoder header = new SorEncoder(HEADER_LENGTH).i32(MAGIC).u16(VERSION);
+        write(header);
+    }
+
+    /**
+     * 已添加的曲线数
+     */
+    public int size() {
+        return fiber.size;
+    }
+
+    /**
+     * 添加一条曲线
+     * <p>缺少的区块按空值保存：字符串为空串，数值为0，没有事件和数据点</p>
+     *
+     * @param file 解析结果
+     */
+    public void add(SorFile file) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("archive closed");
+        }
+        GenParams gen = file.getGenParams();
+        fiber.add(fiberOf(gen == null ? "" : gen.getCableId(), gen == null ? "" : gen.getFiberId(),
+                gen == null ? 0 : gen.getWavelength()));
+
+        FxdParams fxd = file.getFxdParams();
+        boolean hasFxd = fxd != null;
+        timeStamp.add(hasFxd ? fxd.getTimeStamp() : 0);
+        actualWavelength.add(hasFxd ? fxd.rawActualWavelength() : 0);
+        pulseWidth.add(hasFxd && fxd.getPulseNumber() > 0 ? fxd.getPulseWidths()[0] : 0);
+        dataSpacing.add(hasFxd ? fxd.rawDataSpacing() : 0);
+        groupIndex.add(hasFxd ? fxd.rawGroupIndex() : 0);
+        backscatterCoefficient.add(hasFxd ? fxd.rawBackscatterCoefficient() : 0);
+        averages.add(hasFxd ? fxd.getAverages() : 0);
+        acquisitionRange.add(hasFxd ? fxd.getAcquisitionRange() : 0);
+        acquisitionOffset.add(hasFxd ? fxd.getAcquisitionOffset() : 0);
+        frontPanelOffset.add(hasFxd ? fxd.getFrontPanelOffset() : 0);
+        noiseFloorLevel.add(hasFxd ? fxd.rawNoiseFloorLevel() : 0);
+        lossThreshold.add(hasFxd ? fxd.rawLossThreshold() : 0);
+        reflectanceThreshold.add(hasFxd ? fxd.rawReflectanceThreshold() : 0);
+        endThreshold.add(hasFxd ? fxd.rawEndThreshold() : 0);
+
+        KeyEvents keyEvents = file.getKeyEvents();
+        endToEndLoss.add(keyEvents == null ? 0 : keyEvents.rawEndToEndLoss());
+        opticalReturnLoss.add(keyEvents == null ? 0 : keyEvents.rawOpticalReturnLoss());
+        List<KeyEvent> events = keyEvents == null ? Collections.<KeyEvent>emptyList() : keyEvents.getEvents();
+        eventCount.add(events.size());
+        for (KeyEvent event : events) {
+            eventPropagationTime.add(event.getEventPropagationTime());
+            attenuation.add(event.rawAttenuation());
+            eventLoss.add(event.rawEventLoss());
+            eventReflectance.add(event.rawEventReflectance());
+            eventCode.add(codeOf(event.getEventCode()));
+        }
+
+        DataPoints dataPoints = file.getDataPoints();
+        int groups = dataPoints == null ? 0 : dataPoints.getScaleFactorCount();
+        groupCount.add(groups);
+        for (int group = 0; group < groups; group++) {
+            groupPoints.add(dataPoints.getGroupPoints(group));
+            scaleFactor.add(dataPoints.getScaleFactor(group));
+        }
+        pointsNumber.add(dataPoints == null ? 0 : dataPoints.getPointsNumber());
+        sampleCount.add(dataPoints == null ? 0 : dataPoints.size());
+        sampleOffset.add(position);
+        if (dataPoints != null) {
+            samples.reset();
+            pack(dataPoints);
+            write(samples);
+        }
+
+        //其余区块：数据点清空后的SOR文件，分组的点数由分组列恢复
+        byte[] blocks = new SorWriter(file).setDataPoints(dataPoints == null ? null : new DataPoints(
+                dataPoints.getPointsNumber(), new int[groups], scaleFactors(dataPoints), new short[0])).toByteArray();
+        blocksOffset.add(position);
+        long start = position;
+        deflater.reset();
+        deflater.setInput(blocks);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int length = deflater.deflate(deflated);
+            out.write(deflated, 0, length);
+            position += length;
+        }
+        blocksLength.add((int) (position - start));
+    }
+
+    private static int[] scaleFactors(DataPoints dataPoints) {
+        int[] scaleFactors = new int[dataPoints.getScaleFactorCount()];
+        for (int group = 0; group < scaleFactors.length; group++) {
+            scaleFactors[group] = dataPoints.getScaleFactor(group);
+        }
+        return scaleFactors;
+    }
+
+    /**
+     * 写入索引区和文件尾并关闭输出流
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long footerOffset = position;
+            SorEncoder footer = new SorEncoder(1024 + size() * 96 + eventPropagationTime.size * 20);
+            footer.i32(size());
+            footer.i32(fibers.size());
+            for (String[] key : fibers) {
+                footer.zString(key[0]).zString(key[1]).u16(Integer.parseInt(key[2]));
+            }
+            footer.i32(codes.size());
+            for (String code : codes) {
+                footer.zString(code);
+            }
+
+            fiber.write(footer);
+            timeStamp.write(footer);
+            actualWavelength.write(footer);
+            pulseWidth.write(footer);
+            dataSpacing.write(footer);
+            groupIndex.write(footer);
+            backscatterCoefficient.write(footer);
+            averages.write(footer);
+            acquisitionRange.write(footer);
+            acquisitionOffset.write(footer);
+            frontPanelOffset.write(footer);
+            noiseFloorLevel.write(footer);
+            lossThreshold.write(footer);
+            reflectanceThreshold.write(footer);
+            endThreshold.write(footer);
+            endToEndLoss.write(footer);
+            opticalReturnLoss.write(footer);
+            eventCount.write(footer);
+            groupCount.write(footer);
+            pointsNumber.write(footer);
+            sampleCount.write(footer);
+            sampleOffset.write(footer);
+            blocksOffset.write(footer);
+            blocksLength.write(footer);
+
+            footer.i32(groupPoints.size);
+            groupPoints.write(footer);
+            scaleFactor.write(footer);
+
+            footer.i32(eventPropagationTime.size);
+            eventPropagationTime.write(footer);
+            attenuation.write(footer);
+            eventLoss.write(footer);
+            eventReflectance.write(footer);
+            eventCode.write(footer);
+
+            writeFiberIndex(footer);
+            footer.i64(footerOffset).i32(MAGIC);
+            write(footer);
+            out.flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * 光纤索引：按光纤表顺序，每条光纤的曲线数及按测量时间排序的曲线序号
+     */
+    private void writeFiberIndex(SorEncoder footer) {
+        int[] counts = new int[fibers.size()];
+        for (int i = 0; i < fiber.size; i++) {
+            counts[fiber.values[i]]++;
+        }
+        int[] starts = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+        //按光纤分桶后桶内按时间排序，时间相同时保持添加顺序
+        long[] keys = new long[fiber.size];
+        int[] next = Arrays.copyOf(starts, counts.length);
+        Integer[] order = new Integer[fiber.size];
+        for (int i = 0; i < fiber.size; i++) {
+            order[next[fiber.values[i]]++] = i;
+            keys[i] = timeStamp.values[i];
+        }
+        for (int f = 0; f < counts.length; f++) {
+            Arrays.sort(order, starts[f], starts[f + 1], (a, b) -> Long.compare(keys[a], keys[b]));
+            footer.i32(counts[f]);
+            for (int i = starts[f]; i < starts[f + 1]; i++) {
+                footer.i32(order[i]);
+            }
+        }
+    }
+
+    /**
+     * 数据点差分、zigzag编码后按块紧凑存放
+     * <p>每块先写入块内最大位宽，再从低位开始依次拼接各值；第一个差分值相对0计算</p>
+     */
+    private void pack(DataPoints dataPoints) {
+        int size = dataPoints.size();
+        int previous = 0;
+        for (int start = 0; start < size; start += BLOCK_POINTS) {
+            int count = Math.min(BLOCK_POINTS, size - start);
+            int bits = 0;
+            for (int i = 0; i < count; i++) {
+                int value = dataPoints.getRaw(start + i);
+                int delta = value - previous;
+                previous = value;
+                int zigzag = (delta << 1) ^ (delta >> 31);
+                block[i] = zigzag;
+                bits |= zigzag;
+            }
+            int width = 32 - Integer.numberOfLeadingZeros(bits);
+            samples.u8(width);
+            long buffer = 0;
+            int filled = 0;
+            for (int i = 0; i < count; i++) {
+                buffer |= (long) block[i] << filled;
+                filled += width;
+                while (filled >= 8) {
+                    samples.u8((int) buffer);
+                    buffer >>>= 8;
+                    filled -= 8;
+                }
+            }
+            if (filled > 0) {
+                samples.u8((int) buffer);
+            }
+        }
+    }
+
+    private int fiberOf(String cableId, String fiberId, int wavelength) {
+        String key = cableId + '\0' + fiberId + '\0' + wavelength;
+        Integer index = fiberIndex.get(key);
+        if (index == null) {
+            index = fibers.size();
+            fiberIndex.put(key, index);
+            fibers.add(new String[]{cableId, fiberId, String.valueOf(wavelength)});
+        }
+        return index;
+    }
+
+    private int codeOf(String code) {
+        Integer index = codeIndex.get(code);
+        if (index == null) {
+            index = codes.size();
+            codeIndex.put(code, index);
+            codes.add(code);
+        }
+        return index;
+    }
+
+    private void write(SorEncoder encoder) throws IOException {
+        out.write(encoder.array(), 0, encoder.size());
+        position += encoder.size();
+    }
+
+    /**
+     * 可扩展的int列
+     */
+    private static final class IntColumn {
+
+        private int[] values = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void write(SorEncoder out) {
+            for (int i = 0; i < size; i++) {
+                out.i32(values[i]);
+            }
+        }
+    }
+
+    /**
+     * 可扩展的long列
+     */
+    private static final class LongColumn {
+
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void write(SorEncoder out) {
+            for (int i = 0; i < size; i++) {
+                out.i64(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：批量解析或目录监听结束
+ * <p>持续时间覆盖整个批次，或从开始监听到停止监听；批次数量少，不设置threshold</p>
+ *
+ * @author coderyong
+ * @see SorBatchParser
+ * @see SorDirectoryWatcher
+ */
+@Name("otdr.BatchParsed")
+@Label("SOR Batch Parsed")
+@Description("Batch parse or directory watch finished")
+@Category({"OTDR", "Parsing"})
+@StackTrace(false)
+final class SorBatchEvent extends jdk.jfr.Event {
+
+    @Label("Directory")
+    @Description("Source directory, null when parsing a path iterator")
+    String directory;
+
+    @Label("Files")
+    @Description("Files parsed successfully")
+    long files;
+
+    @Label("Failures")
+    long failures;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * 结束计时，开启记录时填写统计并提交
+     *
+     * @param directory 目录，可以为null
+     */
+    static void commit(SorBatchEvent event, Path directory, long files, long failures, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.directory = directory == null ? null : directory.toString();
+            event.files = files;
+            event.failures = failures;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OTDR文件批量并行解析
+ * <p>文件在线程池中并行读取和解析，同时处于读取、解析或回调中的文件数不超过maxInFlight，
+ * 因此内存占用与文件总数无关。线程池可以是ForkJoinPool，也可以是虚拟线程执行器
+ * (Java 21的Executors.newVirtualThreadPerTaskExecutor())。每个批次结束时发出JFR事件otdr.BatchParsed</p>
+ *
+ * @author coderyong
+ */
+public class SorBatchParser implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int maxInFlight;
+    private Set<String> blockIds;
+    private ParseListener listener = ParseListener.NONE;
+
+    /**
+     * 使用独立的ForkJoinPool
+     *
+     * @param parallelism 并行线程数
+     */
+    public SorBatchParser(int parallelism) {
+        this(new ForkJoinPool(parallelism), parallelism * 2, true);
+    }
+
+    /**
+     * 使用调用方提供的线程池，线程池由调用方负责关闭
+     *
+     * @param executor    线程池
+     * @param maxInFlight 同时处理的最大文件数
+     */
+    public SorBatchParser(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, false);
+    }
+
+    private SorBatchParser(ExecutorService executor, int maxInFlight, boolean ownExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * 只解析指定区块
+     *
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @return 当前解析器
+     */
+    public SorBatchParser setBlockIds(Set<String> blockIds) {
+        this.blockIds = blockIds;
+        return this;
+    }
+
+    /**
+     * 设置解析监听，记录文件读取、各区块解码和整个批次的耗时
+     *
+     * @param listener 解析监听，默认{@link ParseListener#NONE}
+     * @return 当前解析器
+     */
+    public SorBatchParser setListener(ParseListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 解析目录下所有.sor文件
+     *
+     * @param directory 目录
+     * @param sink      结果接收者
+     * @return 统计信息
+     */
+    public SorBatchStats parse(Path directory, SorSink sink) throws IOException, InterruptedException {
+        return parse(directory, "*.{sor,SOR}", sink);
+    }
+
+    /**
+     * 解析目录下匹配通配符的文件
+     *
+     * @param directory 目录
+     * @param glob      文件名通配符，如"*.sor"
+     * @param sink      结果接收者
+     * @return 统计信息
+     */
+    public SorBatchStats parse(Path directory, String glob, SorSink sink) throws IOException, InterruptedException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            return parse(directory, stream.iterator(), sink);
+        }
+    }
+
+    /**
+     * 解析路径迭代器中的所有文件
+     * <p>所有文件处理完成后才返回。结果接收者的回调抛出的异常不计为解析失败，也不会再回调onError；
+     * 其余文件照常处理，批次结束后抛出第一个回调异常，之后的作为suppressed附加。
+     * 迭代器或线程池抛出异常时停止提交，等待已提交的文件处理完成后抛出该异常</p>
+     *
+     * @param paths 文件路径
+     * @param sink  结果接收者
+     * @return 统计信息
+     */
+    public SorBatchStats parse(Iterator<Path> paths, SorSink sink) throws InterruptedException {
+        return parse(null, paths, sink);
+    }
+
+    private SorBatchStats parse(Path directory, Iterator<Path> paths, SorSink sink) throws InterruptedException {
+        SorBatchEvent event = new SorBatchEvent();
+        event.begin();
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicLong files = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicReference<RuntimeException> sinkError = new AtomicReference<>();
+        long start = System.nanoTime();
+        try {
+            while (paths.hasNext()) {
+                Path path = paths.next();
+                permits.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            SorFile file;
+                            try {
+                                file = read(path, bytes);
+                            } catch (Exception e) {
+                                failures.incrementAndGet();
+                                deliver(sinkError, () -> sink.onError(path, e));
+                                return;
+                            }
+                            files.incrementAndGet();
+                            deliver(sinkError, () -> sink.onResult(path, file));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } finally {
+            //遍历或提交中途失败时同样等待已提交的文件完成，返回或抛出后不再回调
+            permits.acquireUninterruptibly(maxInFlight);
+            permits.release(maxInFlight);
+            SorBatchEvent.commit(event, directory, files.get(), failures.get(), bytes.get());
+        }
+        if (sinkError.get() != null) {
+            throw sinkError.get();
+        }
+        SorBatchStats stats = new SorBatchStats(files.get(), failures.get(), bytes.get(), System.nanoTime() - start);
+        if (listener != ParseListener.NONE) {
+            listener.onBatch(stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 执行结果回调；回调本身抛出的异常不计为解析失败，记录下来在批次结束后抛出
+     */
+    private static void deliver(AtomicReference<RuntimeException> sinkError, Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            if (!sinkError.compareAndSet(null, e)) {
+                sinkError.get().addSuppressed(e);
+            }
+        }
+    }
+
+    private SorFile read(Path path, AtomicLong bytes) throws IOException {
+        ParseListener listener = this.listener;
+        long start = listener == ParseListener.NONE ? 0 : System.nanoTime();
+        byte[] content = Files.readAllBytes(path);
+        bytes.addAndGet(content.length);
+        if (listener != ParseListener.NONE) {
+            listener.onRead(path, content.length, System.nanoTime() - start);
+        }
+        return SorParser.parse(path, ByteBuffer.wrap(content), blockIds, listener);
+    }
+
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+}
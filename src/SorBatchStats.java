@@ -0,0 +1,63 @@
+/**
+ * 批量解析统计
+ *
+ * @author coderyong
+ */
+public final class SorBatchStats {
+
+    /** 成功文件数 */
+    private final long files;
+    /** 失败文件数 */
+    private final long failures;
+    /** 读取字节数 */
+    private final long bytes;
+    /** 耗时(纳秒) */
+    private final long elapsedNanos;
+
+    SorBatchStats(long files, long failures, long bytes, long elapsedNanos) {
+        this.files = files;
+        this.failures = failures;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 每秒处理文件数(包含失败文件)
+     *
+     * @return 文件数/秒
+     */
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (files + failures) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * 每秒读取字节数
+     *
+     * @return MB/秒
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files, %d failures, %.1f MB in %.3f s (%.0f files/s, %.1f MB/s)",
+                files, failures, bytes / 1048576D, elapsedNanos / 1e9, getFilesPerSecond(), getMegabytesPerSecond());
+    }
+}
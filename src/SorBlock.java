@@ -0,0 +1,58 @@
+/**
+ * Map区块中的区块目录项
+ *
+ * @author coderyong
+ */
+public final class SorBlock {
+
+    /** 区块名称 */
+    private final String blockId;
+    /** 区块版本 */
+    private final int version;
+    /** 区块长度 */
+    private final int length;
+    /** 区块内容在文件中的起始位置 */
+    private final int offset;
+    /** 在Map区块目录中的序号 */
+    private final int index;
+    /** 区块类型，见{@link SorBlockRegistry#typeOf(String)} */
+    private final int type;
+
+    SorBlock(String blockId, int version, int length, int offset, int index) {
+        this.blockId = blockId;
+        this.version = version;
+        this.length = length;
+        this.offset = offset;
+        this.index = index;
+        this.type = SorBlockRegistry.typeOf(blockId);
+    }
+
+    public String getBlockId() {
+        return blockId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    int index() {
+        return index;
+    }
+
+    int type() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return blockId + "@" + offset + "+" + length;
+    }
+}
@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：区块解码完成
+ *
+ * @author coderyong
+ * @see SorParser
+ */
+@Name("otdr.BlockDecoded")
+@Label("SOR Block Decoded")
+@Category({"OTDR", "Parsing"})
+@StackTrace(false)
+final class SorBlockDecodedEvent extends jdk.jfr.Event {
+
+    @Label("Block ID")
+    String blockId;
+
+    @Label("Length")
+    @DataAmount
+    int length;
+}
@@ -0,0 +1,20 @@
+/**
+ * 区块解码器
+ * <p>通过{@link SorBlockRegistry#register(String, SorBlockDecoder)}按区块名称注册，用于解码厂商自定义区块或替换标准区块的解码。
+ * 解码在第一次通过{@link SorFile#getValue(SorBlock)}访问区块值时进行，同一文件的同一区块只解码一次</p>
+ *
+ * @param <T> 解码结果类型
+ * @author coderyong
+ */
+@FunctionalInterface
+public interface SorBlockDecoder<T> {
+
+    /**
+     * 解码区块
+     *
+     * @param cursor 限定在区块上的游标，位于区块开头的区块名称处
+     * @param block  区块目录项
+     * @return 解码结果
+     */
+    T decode(SorCursor cursor, SorBlock block);
+}
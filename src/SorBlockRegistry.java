@@ -0,0 +1,117 @@
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 区块解码器注册表
+ * <p>按区块名称保存{@link SorBlockDecoder}，新建的注册表已包含7个标准区块的解码器。解析时按Map区块目录逐项取出解码器，
+ * 之后访问区块值直接按目录项序号分派，不再比较区块名称；注册表之后的修改不影响已解析的文件</p>
+ * <p>标准区块仍在解析时解码，{@link SorFile#getGenParams()}等方法总是返回内置解码结果；
+ * 其余区块在第一次访问时才解码，没有访问的厂商区块不产生解码开销。可以在多个线程中同时注册和使用</p>
+ *
+ * @author coderyong
+ * @see SorParser#parse(java.nio.ByteBuffer, java.util.Set, SorBlockRegistry)
+ */
+public final class SorBlockRegistry {
+
+    /** 非标准区块 */
+    static final int VENDOR = -1;
+    static final int GEN_PARAMS = 0;
+    static final int SUP_PARAMS = 1;
+    static final int FXD_PARAMS = 2;
+    static final int KEY_EVENTS = 3;
+    static final int LNK_PARAMS = 4;
+    static final int DATA_PTS = 5;
+    static final int CHECKSUM = 6;
+
+    /** 标准区块的内置解码器，按区块类型排列 */
+    static final SorBlockDecoder<?>[] STANDARD = {
+            (cursor, block) -> new GenParams(cursor),
+            (cursor, block) -> new SupParams(cursor),
+            (cursor, block) -> new FxdParams(cursor),
+            (cursor, block) -> new KeyEvents(cursor),
+            (cursor, block) -> new LnkParams(cursor),
+            (cursor, block) -> new DataPoints(cursor),
+            (cursor, block) -> new Checksum(cursor)
+    };
+
+    private static final SorBlockRegistry DEFAULT = new SorBlockRegistry();
+
+    private final ConcurrentHashMap<String, SorBlockDecoder<?>> decoders = new ConcurrentHashMap<>();
+
+    /**
+     * 创建只包含标准区块解码器的注册表
+     */
+    public SorBlockRegistry() {
+        String[] blockIds = {"GenParams", "SupParams", "FxdParams", "KeyEvents", "LnkParams", "DataPts", "Cksum"};
+        for (int i = 0; i < blockIds.length; i++) {
+            decoders.put(blockIds[i], STANDARD[i]);
+        }
+    }
+
+    /**
+     * 默认注册表，未指定注册表的解析方法都使用它
+     */
+    public static SorBlockRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 注册解码器，替换同名区块已有的解码器
+     *
+     * @param blockId 区块名称
+     * @param decoder 解码器
+     * @return 当前注册表
+     */
+    public SorBlockRegistry register(String blockId, SorBlockDecoder<?> decoder) {
+        decoders.put(Objects.requireNonNull(blockId, "blockId"), Objects.requireNonNull(decoder, "decoder"));
+        return this;
+    }
+
+    /**
+     * 移除解码器
+     *
+     * @param blockId 区块名称
+     * @return 当前注册表
+     */
+    public SorBlockRegistry unregister(String blockId) {
+        decoders.remove(blockId);
+        return this;
+    }
+
+    /**
+     * 查找解码器
+     *
+     * @param blockId 区块名称
+     * @return 解码器，没有注册时返回null
+     */
+    public SorBlockDecoder<?> find(String blockId) {
+        return decoders.get(blockId);
+    }
+
+    /**
+     * 区块类型，每个Map目录项创建时确定一次
+     *
+     * @param blockId 区块名称
+     * @return 标准区块的类型，其余为{@link #VENDOR}
+     */
+    static int typeOf(String blockId) {
+        switch (blockId) {
+            case "GenParams":
+                return GEN_PARAMS;
+            case "SupParams":
+                return SUP_PARAMS;
+            case "FxdParams":
+                return FXD_PARAMS;
+            case "KeyEvents":
+                return KEY_EVENTS;
+            case "LnkParams":
+                return LNK_PARAMS;
+            case "DataPts":
+                return DATA_PTS;
+            case "Cksum":
+                return CHECKSUM;
+            default:
+                return VENDOR;
+        }
+    }
+}
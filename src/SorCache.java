@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 解析结果缓存
+ * <p>缓存类型化的{@link SorFile}，同一文件再次读取时不重复解析：</p>
+ * <ul>
+ * <li>按字节内容读取时以CRC32和长度为键，命中后再逐字节比较内容，哈希冲突不会返回错误结果</li>
+ * <li>按路径读取时以路径为键，命中后比较修改时间和文件大小，一致时不读取文件；不一致时移除旧条目并重新解析</li>
+ * <li>估算占用 = 文件字节数 + 数据点数 × 2 + 固定开销，总量超过预算时按最近最少使用淘汰</li>
+ * </ul>
+ * <p>缓存的文件内容是读取时拷贝的副本，调用方之后修改自己的数组不影响缓存。
+ * Map形式的结果每次由缓存的{@link SorFile}重新生成，调用方可以修改。
+ * 实例线程安全，未命中时在锁外解析，同一文件并发未命中时可能重复解析一次</p>
+ *
+ * @author coderyong
+ */
+public final class SorCache {
+
+    /** 每个条目除文件内容和数据点外的估算开销(字节) */
+    private static final int ENTRY_OVERHEAD = 2048;
+
+    /** 最大估算占用字节数 */
+    private final long maxBytes;
+    /** 按访问顺序排列的条目，最久未使用的在前 */
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    /** 当前估算占用字节数 */
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxBytes 最大估算占用字节数
+     */
+    public SorCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 解析字节内容，内容相同时返回缓存的结果
+     *
+     * @param content 字节内容
+     * @return 解析结果
+     */
+    public SorFile parse(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        ContentKey key = new ContentKey(crc.getValue(), content.length);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && Arrays.equals(entry.content, content)) {
+                hits++;
+                return entry.file;
+            }
+            misses++;
+        }
+        byte[] copy = content.clone();
+        SorFile file = SorParser.parse(copy);
+        put(key, new Entry(file, copy, weight(file, copy.length), 0, 0));
+        return file;
+    }
+
+    /**
+     * 解析文件，修改时间和大小与缓存时相同时返回缓存的结果
+     *
+     * @param path 文件路径
+     * @return 解析结果
+     */
+    public SorFile parse(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Path key = path.toAbsolutePath().normalize();
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.modified == modified && entry.size == size) {
+                    hits++;
+                    return entry.file;
+                }
+                //文件已修改，旧条目不再占用预算
+                entries.remove(key);
+                bytes -= entry.weight;
+            }
+            misses++;
+        }
+        //读入堆内存，不保留文件映射
+        byte[] content = Files.readAllBytes(path);
+        SorFile file = SorParser.parse(content);
+        put(key, new Entry(file, null, weight(file, content.length), modified, size));
+        return file;
+    }
+
+    /**
+     * 读取字节内容并转换为区块集合信息
+     *
+     * @param content 字节内容
+     * @return 区块集合信息，每次调用生成新的Map
+     * @see OTDRAnalysis#read(byte[])
+     */
+    public List<Map<String, Object>> read(byte[] content) {
+        return OTDRAnalysis.toMaps(parse(content));
+    }
+
+    /**
+     * 读取文件并转换为区块集合信息
+     *
+     * @param path 文件路径
+     * @return 区块集合信息，每次调用生成新的Map
+     * @see OTDRAnalysis#read(Path)
+     */
+    public List<Map<String, Object>> read(Path path) throws IOException {
+        return OTDRAnalysis.toMaps(parse(path));
+    }
+
+    /**
+     * 清空缓存，统计计数保留
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * 统计信息快照
+     *
+     * @return 统计
+     */
+    public synchronized SorCacheStats getStats() {
+        return new SorCacheStats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    private synchronized void put(Object key, Entry entry) {
+        if (entry.weight > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.weight;
+        }
+        bytes += entry.weight;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.weight;
+            evictions++;
+        }
+    }
+
+    private static long weight(SorFile file, int length) {
+        DataPoints dataPoints = file.getDataPoints();
+        return length + (dataPoints == null ? 0 : dataPoints.size() * 2L) + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+
+        private final SorFile file;
+        /** 按内容缓存时的文件内容，用于命中后比较；按路径缓存时为null */
+        private final byte[] content;
+        private final long weight;
+        /** 按路径缓存时文件的修改时间和大小 */
+        private final long modified;
+        private final long size;
+
+        Entry(SorFile file, byte[] content, long weight, long modified, long size) {
+            this.file = file;
+            this.content = content;
+            this.weight = weight;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 按内容缓存的键
+     */
+    private static final class ContentKey {
+
+        private final long crc;
+        private final int length;
+
+        ContentKey(long crc, int length) {
+            this.crc = crc;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ContentKey)) {
+                return false;
+            }
+            ContentKey other = (ContentKey) o;
+            return crc == other.crc && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) crc * 31 + length;
+        }
+    }
+}
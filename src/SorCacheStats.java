@@ -0,0 +1,63 @@
+/**
+ * 解析缓存统计
+ *
+ * @author coderyong
+ * @see SorCache
+ */
+public final class SorCacheStats {
+
+    /** 命中次数 */
+    private final long hits;
+    /** 未命中次数 */
+    private final long misses;
+    /** 淘汰条目数 */
+    private final long evictions;
+    /** 当前条目数 */
+    private final int entries;
+    /** 当前估算占用字节数 */
+    private final long bytes;
+
+    SorCacheStats(long hits, long misses, long evictions, int entries, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 0~1，没有请求时为0
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (%.1f%%), %d evictions, %d entries, %.1f MB",
+                hits, misses, getHitRate() * 100, evictions, entries, bytes / 1048576D);
+    }
+}
@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：校验和验证完成
+ *
+ * @author coderyong
+ * @see SorParser#verify(java.nio.ByteBuffer)
+ */
+@Name("otdr.ChecksumVerified")
+@Label("SOR Checksum Verified")
+@Category({"OTDR", "Parsing"})
+@StackTrace(false)
+final class SorChecksumEvent extends jdk.jfr.Event {
+
+    @Label("Bytes")
+    @Description("Bytes covered by the checksum")
+    @DataAmount
+    int bytes;
+
+    @Label("Valid")
+    boolean valid;
+}
@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * CSV导出
+ * <p>边读取边写出，不生成中间的Map结构，数值不装箱直接写出：</p>
+ * <ul>
+ * <li>{@link #exportEvents(InputStream, Writer)}：每个事件一行，列名与事件Map的字段名称相同，markerLocations以空格分隔</li>
+ * <li>{@link #exportTrace(InputStream, Writer)}：每个数据点一行，列为序号、距离(km)、原始值和dB值。
+ * dB值由原始值和比例因子精确换算；距离按FxdParams换算并保留6位小数，文件中没有FxdParams时为空</li>
+ * </ul>
+ * <p>不需要的区块直接跳过，不解码。输入流由调用方关闭，Writer在导出完成后flush但不关闭</p>
+ *
+ * @author coderyong
+ * @see SorReader
+ */
+public final class SorCsvExporter {
+
+    /**
+     * 导出事件
+     *
+     * @param input  文件输入流
+     * @param writer 输出
+     */
+    public void exportEvents(InputStream input, Writer writer) throws IOException {
+        SorReader reader = new SorReader(input);
+        SorTextWriter out = new SorTextWriter(writer);
+        out.write("eventNumber,eventPropagationTime,attenuation,eventLoss,eventReflectance,eventCode,"
+                + "lossMeasurementTechnique,markerLocations,comment\n");
+        while (reader.hasNext()) {
+            SorReader.Token token = reader.next();
+            if (token == SorReader.Token.BLOCK_START && reader.getBlock().type() != SorBlockRegistry.KEY_EVENTS) {
+                reader.skipBlock();
+            } else if (token == SorReader.Token.KEY_EVENT) {
+                KeyEvent event = reader.getKeyEvent();
+                out.write(event.getEventNumber()).write(',');
+                out.write(event.getEventPropagationTime()).write(',');
+                out.write(event.getAttenuation()).write(',');
+                out.write(event.getEventLoss()).write(',');
+                out.write(event.getEventReflectance()).write(',');
+                text(out, event.getEventCode());
+                out.write(',');
+                text(out, event.getLossMeasurementTechnique());
+                out.write(',');
+                int[] markers = event.rawMarkerLocations();
+                for (int i = 0; i < markers.length; i++) {
+                    if (i > 0) {
+                        out.write(' ');
+                    }
+                    out.write(markers[i]);
+                }
+                out.write(',');
+                text(out, event.getComment());
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * 导出数据点
+     *
+     * @param input  文件输入流
+     * @param writer 输出
+     */
+    public void exportTrace(InputStream input, Writer writer) throws IOException {
+        SorReader reader = new SorReader(input);
+        SorTextWriter out = new SorTextWriter(writer);
+        out.write("index,distanceKm,raw,dB\n");
+        DistanceAxis axis = null;
+        while (reader.hasNext()) {
+            SorReader.Token token = reader.next();
+            if (token == SorReader.Token.BLOCK_START) {
+                int type = reader.getBlock().type();
+                if (type != SorBlockRegistry.FXD_PARAMS && type != SorBlockRegistry.DATA_PTS) {
+                    reader.skipBlock();
+                }
+            } else if (token == SorReader.Token.FIELD && "pointsNumber".equals(reader.getFieldName())) {
+                FxdParams fxd = reader.fxdParams();
+                if (fxd != null && fxd.rawGroupIndex() > 0) {
+                    axis = new DistanceAxis(fxd.rawDataSpacing(), fxd.rawGroupIndex(), fxd.getAcquisitionOffset(),
+                            fxd.getFrontPanelOffset(), (int) reader.getLong());
+                }
+            } else if (token == SorReader.Token.SAMPLES) {
+                int[] samples = reader.getSamples();
+                int index = reader.getSampleIndex();
+                long scaleFactor = reader.getScaleFactor();
+                for (int i = 0, n = reader.getSampleCount(); i < n; i++, index++) {
+                    out.write(index).write(',');
+                    if (axis != null) {
+                        out.writeFixed(Math.round(axis.pointToKm(index) * 1e6), 6);
+                    }
+                    out.write(',').write(samples[i]).write(',');
+                    //dB = -raw × scaleFactor / 10^6
+                    out.writeFixed(-samples[i] * scaleFactor, 6).write('\n');
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * 写入文本列，含逗号、引号或换行时加引号
+     */
+    private static void text(SorTextWriter out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0, n = value.length(); i < n && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
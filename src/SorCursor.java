@@ -0,0 +1,232 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * "小端"读取游标
+ * <p>按顺序读取SOR字段并自动移动读取位置，读取数值字段不产生任何对象分配。
+ * 同一个游标可以通过{@link #range(int, int)}在多个区块之间复用</p>
+ *
+ * @author coderyong
+ */
+public final class SorCursor {
+
+    private final ByteBuffer buffer;
+    private final byte[] array;
+    private final int arrayOffset;
+    private int position;
+    private int limit;
+
+    /**
+     * 创建字节数组游标
+     *
+     * @param content 字节内容
+     */
+    public SorCursor(byte[] content) {
+        this(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * 创建缓冲区游标
+     * <p>游标位置从0开始，对应缓冲区的当前位置</p>
+     *
+     * @param content 缓冲区内容
+     */
+    public SorCursor(ByteBuffer content) {
+        buffer = content.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.hasArray()) {
+            array = buffer.array();
+            arrayOffset = buffer.arrayOffset();
+        } else {
+            array = null;
+            arrayOffset = 0;
+        }
+        limit = buffer.limit();
+    }
+
+    /**
+     * 限定读取范围
+     *
+     * @param offset 起始位置
+     * @param length 范围长度
+     * @return 当前游标
+     */
+    public SorCursor range(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IndexOutOfBoundsException("range " + offset + "+" + length + " exceeds " + buffer.limit());
+        }
+        position = offset;
+        limit = offset + length;
+        return this;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public SorCursor position(int position) {
+        if (position < 0 || position > limit) {
+            throw new IndexOutOfBoundsException("position " + position + " exceeds " + limit);
+        }
+        this.position = position;
+        return this;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * 跳过指定字节数
+     *
+     * @param length 字节数
+     * @return 当前游标
+     */
+    public SorCursor skip(int length) {
+        return position(position + length);
+    }
+
+    /**
+     * 读取单字节
+     *
+     * @return 无符号字节值
+     */
+    public int u8() {
+        check(1);
+        return buffer.get(position++) & 0xFF;
+    }
+
+    /**
+     * 读取2字节无符号整型数
+     *
+     * @return 整型数值
+     */
+    public int u16() {
+        check(2);
+        int value = buffer.getShort(position) & 0xFFFF;
+        position += 2;
+        return value;
+    }
+
+    /**
+     * 读取2字节有符号整型数
+     *
+     * @return 整型数值
+     */
+    public int i16() {
+        check(2);
+        int value = buffer.getShort(position);
+        position += 2;
+        return value;
+    }
+
+    /**
+     * 读取4字节有符号整型数
+     *
+     * @return 整型数值
+     */
+    public int i32() {
+        check(4);
+        int value = buffer.getInt(position);
+        position += 4;
+        return value;
+    }
+
+    /**
+     * 读取8字节有符号整型数
+     *
+     * @return 整型数值
+     */
+    public long i64() {
+        check(8);
+        long value = buffer.getLong(position);
+        position += 8;
+        return value;
+    }
+
+    /**
+     * 读取4字节无符号整型数
+     *
+     * @return 整型数值
+     */
+    public long u32() {
+        return i32() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 读取定长字符串
+     *
+     * @param length 字节长度
+     * @return 字符串
+     */
+    public String fixedString(int length) {
+        check(length);
+        String value = string(position, length);
+        position += length;
+        return value;
+    }
+
+    /**
+     * 读取以0为结束符的字符串，游标移动到结束符之后
+     *
+     * @return 字符串
+     */
+    public String zString() {
+        int end = position;
+        while (end < limit && buffer.get(end) != 0) {
+            end++;
+        }
+        String value = string(position, end - position);
+        position = Math.min(end + 1, limit);
+        return value;
+    }
+
+    /**
+     * 跳过以0为结束符的字符串
+     *
+     * @return 当前游标
+     */
+    public SorCursor skipZString() {
+        while (position < limit && buffer.get(position) != 0) {
+            position++;
+        }
+        position = Math.min(position + 1, limit);
+        return this;
+    }
+
+    /**
+     * 批量读取连续的2字节整型数
+     *
+     * @param target 目标数组，按short保存原始值
+     * @param offset 目标起始位置
+     * @param length 读取个数
+     */
+    public void u16s(short[] target, int offset, int length) {
+        check(length * 2);
+        ByteBuffer view = buffer.duplicate();
+        view.limit(position + length * 2);
+        view.position(position);
+        view.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(target, offset, length);
+        position += length * 2;
+    }
+
+    private String string(int offset, int length) {
+        if (array != null) {
+            return new String(array, arrayOffset + offset, length);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes);
+    }
+
+    private void check(int length) {
+        if (length < 0 || position + length > limit) {
+            throw new IndexOutOfBoundsException("read " + length + " bytes at " + position + " exceeds " + limit);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录监听解析
+ * <p>通过WatchService监听目录中新建或修改的.sor文件，解析后交给{@link SorSink}：</p>
+ * <ul>
+ * <li>文件的修改时间超过静默时间没有变化才认为写入完成，避免解析写了一半的文件</li>
+ * <li>文件在线程池中读取和解析，同时处于读取、解析或回调中的文件数不超过maxInFlight；
+ * 回调处理慢时监听线程等待，内存占用与突发的文件数无关</li>
+ * <li>事件过多被丢弃(OVERFLOW)时重新遍历目录，开始监听时已存在的文件和已解析的文件，修改时间未变时不会解析</li>
+ * </ul>
+ * <p>只处理{@link #start()}之后出现或修改的文件；关闭时仍在静默期内的文件不再处理。
+ * 目录不可访问、线程池拒绝任务或监听线程中的回调抛出异常时停止监听，原因通过sink.onError(目录, 异常)回调，
+ * 并可由{@link #getFailure()}获取。停止监听时发出JFR事件otdr.BatchParsed，持续时间从开始监听计算</p>
+ *
+ * @author coderyong
+ */
+public class SorDirectoryWatcher implements Closeable {
+
+    /** 默认静默时间(毫秒) */
+    private static final long DEFAULT_QUIET_MILLIS = 200;
+    /** 记录已解析文件修改时间的最大文件数 */
+    private static final int MAX_PROCESSED = 100_000;
+
+    private final Path directory;
+    private final SorSink sink;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:*.{sor,SOR}");
+    private long quietMillis = DEFAULT_QUIET_MILLIS;
+    private Set<String> blockIds;
+    private ParseListener listener = ParseListener.NONE;
+
+    /** 等待写入完成的文件及最近一次变化的时间(纳秒)，只在监听线程中访问 */
+    private final Map<Path, Long> pending = new LinkedHashMap<>();
+    /** 已提交解析的文件及其修改时间，开始监听时已存在的文件也记录在内；开始后只在监听线程中访问 */
+    private final Map<Path, Long> processed = new LinkedHashMap<Path, Long>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Long> eldest) {
+            return size() > MAX_PROCESSED;
+        }
+    };
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private WatchService watchService;
+    private Thread thread;
+    private long startNanos;
+    /** 开始监听时创建，停止时提交 */
+    private SorBatchEvent event;
+    private volatile boolean closed;
+    private volatile boolean running;
+    /** 监听异常停止的原因 */
+    private volatile Exception failure;
+
+    /**
+     * 使用独立的ForkJoinPool
+     *
+     * @param directory   监听的目录
+     * @param sink        结果接收者，在线程池中回调
+     * @param parallelism 并行线程数
+     */
+    public SorDirectoryWatcher(Path directory, SorSink sink, int parallelism) {
+        this(directory, sink, new ForkJoinPool(parallelism), parallelism * 2, true);
+    }
+
+    /**
+     * 使用调用方提供的线程池，线程池由调用方负责关闭
+     *
+     * @param directory   监听的目录
+     * @param sink        结果接收者，在线程池中回调
+     * @param executor    线程池
+     * @param maxInFlight 同时处理的最大文件数
+     */
+    public SorDirectoryWatcher(Path directory, SorSink sink, ExecutorService executor, int maxInFlight) {
+        this(directory, sink, executor, maxInFlight, false);
+    }
+
+    private SorDirectoryWatcher(Path directory, SorSink sink, ExecutorService executor, int maxInFlight,
+                                boolean ownExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.directory = directory;
+        this.sink = sink;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * 设置静默时间，文件的修改时间超过该时间没有变化才开始解析
+     *
+     * @param quietMillis 毫秒，默认200
+     * @return 当前监听器
+     */
+    public SorDirectoryWatcher setQuietMillis(long quietMillis) {
+        if (quietMillis < 0) {
+            throw new IllegalArgumentException("quietMillis must not be negative: " + quietMillis);
+        }
+        this.quietMillis = quietMillis;
+        return this;
+    }
+
+    /**
+     * 只解析指定区块
+     *
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @return 当前监听器
+     */
+    public SorDirectoryWatcher setBlockIds(Set<String> blockIds) {
+        this.blockIds = blockIds;
+        return this;
+    }
+
+    /**
+     * 设置解析监听，记录文件读取和各区块解码的耗时
+     *
+     * @param listener 解析监听，默认{@link ParseListener#NONE}
+     * @return 当前监听器
+     */
+    public SorDirectoryWatcher setListener(ParseListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 开始监听
+     *
+     * @return 当前监听器
+     */
+    public synchronized SorDirectoryWatcher start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("already started");
+        }
+        //先记录已有文件再注册，之后修改的文件修改时间不同，仍会被处理
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{sor,SOR}")) {
+            for (Path path : stream) {
+                try {
+                    processed.put(path, Files.getLastModifiedTime(path).toMillis());
+                } catch (NoSuchFileException e) {
+                    //遍历时已删除
+                }
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        startNanos = System.nanoTime();
+        event = new SorBatchEvent();
+        event.begin();
+        thread = new Thread(this::run, "sor-watcher-" + directory.getFileName());
+        thread.setDaemon(true);
+        running = true;
+        thread.start();
+        return this;
+    }
+
+    /**
+     * 统计信息，耗时从开始监听时计算
+     *
+     * @return 统计
+     */
+    public SorBatchStats getStats() {
+        return new SorBatchStats(files.get(), failures.get(), bytes.get(),
+                startNanos == 0 ? 0 : System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 是否正在监听，关闭或异常停止后为false
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 监听异常停止的原因
+     *
+     * @return 异常，仍在监听或正常关闭时返回null
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * 监听线程
+     */
+    private void run() {
+        //静默时间内至少检查两次
+        long pollMillis = Math.max(10, Math.min(100, quietMillis / 2));
+        try {
+            while (!closed) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    long now = System.nanoTime();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            rescan(now);
+                        } else {
+                            Path name = (Path) event.context();
+                            if (matcher.matches(name)) {
+                                pending.put(directory.resolve(name), now);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        fail(new NoSuchFileException(directory.toString(), null, "directory no longer accessible"));
+                        return;
+                    }
+                }
+                submitQuiet();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            if (!closed) {
+                fail(e);
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            running = false;
+            if (!closed) {
+                //异常停止时立即提交，之后完成的文件不计入事件
+                commitEvent();
+            }
+        }
+    }
+
+    /**
+     * 提交监听的JFR事件，只提交一次
+     */
+    private synchronized void commitEvent() {
+        if (event != null) {
+            SorBatchEvent.commit(event, directory, files.get(), failures.get(), bytes.get());
+            event = null;
+        }
+    }
+
+    /**
+     * 记录停止原因并回调，回调本身的异常附加到原因上
+     */
+    private void fail(Exception e) {
+        failure = e;
+        running = false;
+        try {
+            sink.onError(directory, e);
+        } catch (RuntimeException callback) {
+            e.addSuppressed(callback);
+        }
+        try {
+            watchService.close();
+        } catch (IOException closeError) {
+            e.addSuppressed(closeError);
+        }
+    }
+
+    /**
+     * 事件丢失后重新遍历目录
+     */
+    private void rescan(long now) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{sor,SOR}")) {
+            for (Path path : stream) {
+                pending.put(path, now);
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            sink.onError(directory, e);
+        }
+    }
+
+    /**
+     * 提交静默时间已到的文件，线程池繁忙时在此等待
+     */
+    private void submitQuiet() throws InterruptedException {
+        long now = System.nanoTime();
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && !closed) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (now - entry.getValue() < quietNanos) {
+                continue;
+            }
+            Path path = entry.getKey();
+            long modified;
+            try {
+                modified = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+            } catch (NoSuchFileException e) {
+                iterator.remove();
+                continue;
+            } catch (IOException e) {
+                iterator.remove();
+                failures.incrementAndGet();
+                sink.onError(path, e);
+                continue;
+            }
+            if (System.currentTimeMillis() - modified < quietMillis) {
+                //事件之后仍在写入
+                entry.setValue(now);
+                continue;
+            }
+            iterator.remove();
+            Long previous = processed.put(path, modified);
+            if (previous != null && previous == modified) {
+                continue;
+            }
+            permits.acquire();
+            try {
+                executor.execute(() -> parse(path));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    private void parse(Path path) {
+        try {
+            SorFile file;
+            try {
+                long start = listener == ParseListener.NONE ? 0 : System.nanoTime();
+                byte[] content = Files.readAllBytes(path);
+                bytes.addAndGet(content.length);
+                if (listener != ParseListener.NONE) {
+                    listener.onRead(path, content.length, System.nanoTime() - start);
+                }
+                file = SorParser.parse(path, ByteBuffer.wrap(content), blockIds, listener);
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                sink.onError(path, e);
+                return;
+            }
+            //回调抛出的异常不计为解析失败，交给线程池处理
+            files.incrementAndGet();
+            sink.onResult(path, file);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 停止监听，等待已提交的文件处理完成；等待时被中断则保留中断状态并直接返回
+     */
+    @Override
+    public void close() throws IOException {
+        Thread watcher;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            watcher = thread;
+        }
+        try {
+            if (watcher != null) {
+                watchService.close();
+                watcher.join();
+                permits.acquire(maxInFlight);
+                permits.release(maxInFlight);
+                commitEvent();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ownExecutor) {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * "小端"写入缓冲区
+ * <p>与{@link SorCursor}对应，按顺序写入SOR字段，容量不足时自动扩展</p>
+ *
+ * @author coderyong
+ */
+final class SorEncoder {
+
+    private byte[] bytes;
+    private int size;
+
+    SorEncoder(int capacity) {
+        bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    SorEncoder u8(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    SorEncoder u16(int value) {
+        ensure(2);
+        bytes[size++] = (byte) value;
+        bytes[size++] = (byte) (value >>> 8);
+        return this;
+    }
+
+    SorEncoder i32(int value) {
+        ensure(4);
+        bytes[size++] = (byte) value;
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 24);
+        return this;
+    }
+
+    /**
+     * 改写已写入位置的4字节整型数，用于回填长度
+     *
+     * @param position 已写入内容中的位置
+     * @param value    数值
+     * @return 当前缓冲区
+     */
+    SorEncoder i32At(int position, int value) {
+        if (position < 0 || position + 4 > size) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        }
+        bytes[position] = (byte) value;
+        bytes[position + 1] = (byte) (value >>> 8);
+        bytes[position + 2] = (byte) (value >>> 16);
+        bytes[position + 3] = (byte) (value >>> 24);
+        return this;
+    }
+
+    SorEncoder i64(long value) {
+        return i32((int) value).i32((int) (value >>> 32));
+    }
+
+    /**
+     * 写入定长字符串，不足部分补空格，超出部分截断
+     *
+     * @param value  字符串
+     * @param length 字节长度
+     * @return 当前缓冲区
+     */
+    SorEncoder fixedString(String value, int length) {
+        byte[] b = value.getBytes();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            bytes[size++] = i < b.length ? b[i] : (byte) ' ';
+        }
+        return this;
+    }
+
+    /**
+     * 写入以0为结束符的字符串
+     *
+     * @param value 字符串
+     * @return 当前缓冲区
+     */
+    SorEncoder zString(String value) {
+        byte[] b = value.getBytes();
+        ensure(b.length + 1);
+        System.arraycopy(b, 0, bytes, size, b.length);
+        size += b.length;
+        bytes[size++] = 0;
+        return this;
+    }
+
+    /**
+     * 写入连续的2字节整型数
+     *
+     * @param values 按short保存的原始值
+     * @param offset 起始位置
+     * @param length 个数
+     * @return 当前缓冲区
+     */
+    SorEncoder u16s(short[] values, int offset, int length) {
+        ensure(length * 2);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            short value = values[i];
+            bytes[size++] = (byte) value;
+            bytes[size++] = (byte) (value >>> 8);
+        }
+        return this;
+    }
+
+    SorEncoder bytes(byte[] b, int offset, int length) {
+        ensure(length);
+        System.arraycopy(b, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    private void ensure(int length) {
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * OTDR(SOR)文件解析结果
+ * <p>未出现或未选择解析的区块对应的值为null。其余区块通过{@link #getValue(SorBlock)}按注册的解码器在第一次访问时解码</p>
+ *
+ * @author coderyong
+ */
+public final class SorFile {
+
+    /** 文件内容 */
+    private final ByteBuffer content;
+    /** 区块目录 */
+    private final SorMap map;
+    /** 选择解析的区块名称，null表示全部区块 */
+    private final Set<String> blockIds;
+    private final GenParams genParams;
+    private final SupParams supParams;
+    private final FxdParams fxdParams;
+    private final KeyEvents keyEvents;
+    private final LnkParams lnkParams;
+    private final DataPoints dataPoints;
+    private final Checksum checksum;
+    /** 各目录项的解码器，按目录项序号排列，没有注册解码器时为null */
+    private final SorBlockDecoder<?>[] decoders;
+    /** 各目录项已解码的区块值 */
+    private final AtomicReferenceArray<Object> values;
+
+    SorFile(ByteBuffer content, SorMap map, Set<String> blockIds, GenParams genParams, SupParams supParams, FxdParams fxdParams,
+            KeyEvents keyEvents, LnkParams lnkParams, DataPoints dataPoints, Checksum checksum,
+            SorBlockDecoder<?>[] decoders, Object[] values) {
+        this.content = content;
+        this.map = map;
+        this.blockIds = blockIds;
+        this.genParams = genParams;
+        this.supParams = supParams;
+        this.fxdParams = fxdParams;
+        this.keyEvents = keyEvents;
+        this.lnkParams = lnkParams;
+        this.dataPoints = dataPoints;
+        this.checksum = checksum;
+        this.decoders = decoders;
+        this.values = new AtomicReferenceArray<>(values);
+    }
+
+    public SorMap getMap() {
+        return map;
+    }
+
+    /**
+     * 区块是否在解析范围内
+     *
+     * @param blockId 区块名称
+     * @return 是否已选择解析
+     */
+    public boolean isSelected(String blockId) {
+        return blockIds == null || blockIds.contains(blockId);
+    }
+
+    public GenParams getGenParams() {
+        return genParams;
+    }
+
+    public SupParams getSupParams() {
+        return supParams;
+    }
+
+    public FxdParams getFxdParams() {
+        return fxdParams;
+    }
+
+    public KeyEvents getKeyEvents() {
+        return keyEvents;
+    }
+
+    public LnkParams getLnkParams() {
+        return lnkParams;
+    }
+
+    public DataPoints getDataPoints() {
+        return dataPoints;
+    }
+
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * 获取区块值
+     * <p>第一次访问时使用解析时注册的解码器解码，之后返回同一结果；多个线程同时第一次访问时可能各解码一次，但只保留一个结果</p>
+     *
+     * @param block 本文件Map区块中的目录项
+     * @return 解码结果，没有注册解码器时返回null
+     */
+    public Object getValue(SorBlock block) {
+        int index = block.index();
+        if (index >= decoders.length || map.getBlocks().get(index) != block) {
+            throw new IllegalArgumentException("block not in this file: " + block);
+        }
+        Object value = values.get(index);
+        if (value != null || decoders[index] == null) {
+            return value;
+        }
+        SorBlockDecodedEvent event = new SorBlockDecodedEvent();
+        event.begin();
+        value = decoders[index].decode(new SorCursor(content).range(block.getOffset(), block.getLength()), block);
+        event.end();
+        if (event.shouldCommit()) {
+            event.blockId = block.getBlockId();
+            event.length = block.getLength();
+            event.commit();
+        }
+        return values.compareAndSet(index, null, value) ? value : values.get(index);
+    }
+
+    /**
+     * 获取区块值
+     *
+     * @param blockId 区块名称，有多个同名区块时取第一个
+     * @param type    解码结果类型
+     * @return 解码结果，区块不存在或没有注册解码器时返回null
+     * @throws ClassCastException 解码结果不是指定类型
+     */
+    public <T> T getValue(String blockId, Class<T> type) {
+        SorBlock block = map.find(blockId);
+        return block == null ? null : type.cast(getValue(block));
+    }
+
+    /**
+     * 校验文件内容与Cksum区块中保存的校验和是否一致
+     *
+     * @return 是否一致，文件中没有Cksum区块时返回false
+     */
+    public boolean verifyChecksum() {
+        return SorParser.verify(content, map);
+    }
+
+    /**
+     * 获取Map区块字节内容
+     *
+     * @return 只读视图
+     */
+    public BlockContent getMapContent() {
+        return new BlockContent(SorParser.slice(content, 0, map.getLength()));
+    }
+
+    /**
+     * 获取区块字节内容
+     *
+     * @param block 区块目录项
+     * @return 只读视图
+     */
+    public BlockContent getContent(SorBlock block) {
+        return new BlockContent(slice(block));
+    }
+
+    /**
+     * 截取区块视图
+     *
+     * @param block 区块目录项
+     * @return 与文件内容共享的视图
+     */
+    ByteBuffer slice(SorBlock block) {
+        return SorParser.slice(content, block.getOffset(), block.getLength());
+    }
+}
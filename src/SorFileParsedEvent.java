@@ -0,0 +1,36 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR事件：文件解析完成
+ * <p>持续时间覆盖Map区块和各区块的解码，不包括文件读取和Map转换。
+ * 默认只记录耗时超过1ms的事件，可在JFR配置中调整threshold</p>
+ *
+ * @author coderyong
+ * @see SorParser
+ */
+@Name("otdr.FileParsed")
+@Label("SOR File Parsed")
+@Description("SOR file parsed into typed blocks")
+@Category({"OTDR", "Parsing"})
+@StackTrace(false)
+@Threshold("1 ms")
+final class SorFileParsedEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    @Description("File path, null when parsing a buffer")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Block Count")
+    @Description("Number of decoded blocks")
+    int blockCount;
+}
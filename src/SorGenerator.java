@@ -0,0 +1,384 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 合成OTDR(SOR)文件生成器
+ * <p>按种子和文件序号确定性地生成合法的SOR文件，用于负载和扩展性测试：</p>
+ * <ul>
+ * <li>包含Map、GenParams、SupParams、FxdParams、KeyEvents、LnkParams、DataPts、厂商自定义区块和Cksum，
+ * 区块长度和校验和与内容一致</li>
+ * <li>数据点按光纤衰减生成，在事件位置叠加损耗台阶和反射峰，噪声随距离增大，光纤末端之后为噪声底；
+ * 多个脉冲宽度时每个脉冲宽度对应DataPts中的一个比例因子分组</li>
+ * <li>相同的种子、参数和文件序号总是生成相同的字节内容，各文件可以在多个线程中独立生成</li>
+ * </ul>
+ * <p>运行方式：java SorGenerator 目录 文件数 [数据点数] [事件数] [地标数] [种子]</p>
+ *
+ * @author coderyong
+ */
+public class SorGenerator {
+
+    /** 区块版本 */
+    private static final int VERSION = 200;
+    /** 群折射率(×100000) */
+    private static final int GROUP_INDEX = 146800;
+    /** 曲线覆盖的距离(km) */
+    private static final double RANGE_KM = 100;
+    /** 光纤衰减(dB/km) */
+    private static final double ATTENUATION = 0.2;
+    /** 1ns脉冲的后向散射系数(dB) */
+    private static final double BACKSCATTER = -80;
+    /** 噪声底的原始值 */
+    private static final int NOISE_FLOOR = 65535;
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final long seed;
+    private int points = 16 * 1024;
+    private int events = 16;
+    private int landmarks = 0;
+    private int pulses = 1;
+    private int stringLength = 8;
+    private int vendorBlocks = 0;
+    private int vendorBlockLength = 1024;
+
+    /**
+     * @param seed 随机数种子
+     */
+    public SorGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param points 数据点数，默认16384
+     * @return 当前生成器
+     */
+    public SorGenerator setPoints(int points) {
+        if (points < 64) {
+            throw new IllegalArgumentException("points must be at least 64: " + points);
+        }
+        this.points = points;
+        return this;
+    }
+
+    /**
+     * @param events 事件数(含光纤末端)，默认16，不超过65535
+     * @return 当前生成器
+     */
+    public SorGenerator setEvents(int events) {
+        if (events < 0 || events > 0xFFFF) {
+            throw new IllegalArgumentException("events out of range: " + events);
+        }
+        this.events = events;
+        return this;
+    }
+
+    /**
+     * @param landmarks 地标数，默认0，不超过65535
+     * @return 当前生成器
+     */
+    public SorGenerator setLandmarks(int landmarks) {
+        if (landmarks < 0 || landmarks > 0xFFFF) {
+            throw new IllegalArgumentException("landmarks out of range: " + landmarks);
+        }
+        this.landmarks = landmarks;
+        return this;
+    }
+
+    /**
+     * @param pulses 脉冲宽度个数，默认1，依次为100ns、200ns、400ns……
+     * @return 当前生成器
+     */
+    public SorGenerator setPulses(int pulses) {
+        if (pulses < 1 || pulses > 9) {
+            throw new IllegalArgumentException("pulses must be 1~9: " + pulses);
+        }
+        this.pulses = pulses;
+        return this;
+    }
+
+    /**
+     * @param stringLength 光缆编号、备注等字符串字段的长度，默认8
+     * @return 当前生成器
+     */
+    public SorGenerator setStringLength(int stringLength) {
+        if (stringLength < 0) {
+            throw new IllegalArgumentException("stringLength must not be negative: " + stringLength);
+        }
+        this.stringLength = stringLength;
+        return this;
+    }
+
+    /**
+     * @param count  厂商自定义区块数，默认0
+     * @param length 每个区块的内容字节数，默认1024
+     * @return 当前生成器
+     */
+    public SorGenerator setVendorBlocks(int count, int length) {
+        if (count < 0 || length < 0) {
+            throw new IllegalArgumentException("vendor blocks " + count + " x " + length);
+        }
+        this.vendorBlocks = count;
+        this.vendorBlockLength = length;
+        return this;
+    }
+
+    /**
+     * 生成文件内容
+     *
+     * @param index 文件序号
+     * @return 文件字节内容
+     */
+    public byte[] generate(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        //数据点间隔(0.1ns)，使曲线覆盖约RANGE_KM
+        double kmPerTime = 0.299792458 / 10000 / (GROUP_INDEX / 100000D);
+        double spacing = RANGE_KM / kmPerTime / points;
+        int rawSpacing = (int) Math.min(Integer.MAX_VALUE, Math.round(spacing * 10000));
+        double kmPerPoint = spacing * kmPerTime;
+        int[] pulseWidths = new int[pulses];
+        for (int p = 0; p < pulses; p++) {
+            pulseWidths[p] = 100 << p;
+        }
+        Trace trace = new Trace(random, points, events, kmPerPoint, spacing, pulseWidths[0]);
+
+        String[] blockIds = new String[7 + vendorBlocks];
+        blockIds[0] = "GenParams";
+        blockIds[1] = "SupParams";
+        blockIds[2] = "FxdParams";
+        blockIds[3] = "KeyEvents";
+        blockIds[4] = "LnkParams";
+        blockIds[5] = "DataPts";
+        for (int i = 0; i < vendorBlocks; i++) {
+            blockIds[6 + i] = "Vendor" + (i + 1);
+        }
+        blockIds[blockIds.length - 1] = "Cksum";
+
+        int capacity = 1024 + points * 2 + events * (64 + stringLength) + landmarks * (48 + stringLength)
+                + vendorBlocks * (vendorBlockLength + 16) + stringLength * 16;
+        SorEncoder out = new SorEncoder(capacity);
+        //Map区块，区块长度稍后回填
+        out.zString("Map").u16(VERSION);
+        int mapLengthAt = out.size();
+        out.i32(0).u16(blockIds.length + 1);
+        int[] lengthAt = new int[blockIds.length];
+        for (int i = 0; i < blockIds.length; i++) {
+            out.zString(blockIds[i]).u16(VERSION);
+            lengthAt[i] = out.size();
+            out.i32(0);
+        }
+        out.i32At(mapLengthAt, out.size());
+
+        for (int i = 0; i < blockIds.length; i++) {
+            int start = out.size();
+            out.zString(blockIds[i]);
+            switch (blockIds[i]) {
+                case "GenParams":
+                    out.fixedString("EN", 2).zString(string(random)).zString(string(random)).u16(652)
+                            .u16(random.nextBoolean() ? 1550 : 1310).zString(string(random)).zString(string(random))
+                            .zString(string(random)).fixedString("BC", 2).i32(0).i32(0)
+                            .zString(string(random)).zString(string(random));
+                    break;
+                case "SupParams":
+                    for (int s = 0; s < 7; s++) {
+                        out.zString(string(random));
+                    }
+                    break;
+                case "FxdParams":
+                    writeFxdParams(out, index, rawSpacing, spacing, pulseWidths);
+                    break;
+                case "KeyEvents":
+                    writeKeyEvents(out, random, trace, spacing);
+                    break;
+                case "LnkParams":
+                    out.u16(landmarks);
+                    for (int l = 0; l < landmarks; l++) {
+                        out.u16(l + 1).fixedString("MH", 2).i32((int) (random.nextDouble() * points * spacing))
+                                .u16(0).i32(random.nextInt()).i32(random.nextInt()).u16(0)
+                                .i32(random.nextInt(100000)).i32(random.nextInt(100000))
+                                .fixedString("mt", 2).fixedString("  ", 2).zString(string(random));
+                    }
+                    break;
+                case "DataPts":
+                    out.i32(points).u16(pulses);
+                    int from = 0;
+                    for (int p = 0; p < pulses; p++) {
+                        int count = p == pulses - 1 ? points - from : points / pulses;
+                        out.i32(count).u16(1000).u16s(trace.samples, from, count);
+                        from += count;
+                    }
+                    break;
+                case "Cksum":
+                    //校验和覆盖Map区块中的区块长度，先回填本区块长度
+                    out.i32At(lengthAt[i], out.size() - start + 2);
+                    out.u16(Crc16.compute(out.array(), 0, out.size()));
+                    break;
+                default:
+                    byte[] vendor = new byte[vendorBlockLength];
+                    for (int b = 0; b < vendor.length; b++) {
+                        vendor[b] = (byte) random.nextInt();
+                    }
+                    out.bytes(vendor, 0, vendor.length);
+                    break;
+            }
+            out.i32At(lengthAt[i], out.size() - start);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 生成文件
+     *
+     * @param index 文件序号
+     * @param path  文件路径，已存在的文件将被覆盖
+     */
+    public void generate(long index, Path path) throws IOException {
+        Files.write(path, generate(index));
+    }
+
+    private void writeFxdParams(SorEncoder out, long index, int rawSpacing, double spacing, int[] pulseWidths) {
+        out.i32((int) (1600000000L + index * 3600)).fixedString("mt", 2).u16(15500).i32(0).i32(0).u16(pulses);
+        for (int width : pulseWidths) {
+            out.u16(width);
+        }
+        for (int p = 0; p < pulses; p++) {
+            out.i32(rawSpacing);
+        }
+        for (int p = 0; p < pulses; p++) {
+            out.i32(p == pulses - 1 ? points - points / pulses * (pulses - 1) : points / pulses);
+        }
+        out.i32(GROUP_INDEX).u16((int) (-BACKSCATTER * 10)).i32(1000).u16(30)
+                .i32((int) Math.min(Integer.MAX_VALUE, Math.round(points * spacing))).i32(0).i32(0)
+                .u16(NOISE_FLOOR - 1000).u16(1000).u16(0).u16(40).u16(65000).u16(5000)
+                .fixedString("ST", 2).i32(0).i32(0).i32(0).i32(0);
+    }
+
+    private void writeKeyEvents(SorEncoder out, SplittableRandom random, Trace trace, double spacing) {
+        out.u16(events);
+        double totalLoss = 0;
+        for (int e = 0; e < events; e++) {
+            int time = (int) Math.round(trace.positions[e] * spacing);
+            boolean end = e == events - 1;
+            boolean reflective = trace.reflectances[e] != 0;
+            totalLoss += trace.losses[e];
+            out.u16(e + 1).i32(time).u16((int) (ATTENUATION * 1000)).u16((int) Math.round(trace.losses[e] * 1000))
+                    .i32((int) Math.round(trace.reflectances[e] * 1000))
+                    .fixedString(end ? "1E9999" : reflective ? "1F9999" : "0F9999", 6).fixedString("LS", 2);
+            int marker = (int) Math.round(spacing * 10);
+            out.i32(time - 4 * marker).i32(time - marker).i32(time + marker).i32(time + 4 * marker).i32(time);
+            out.zString(string(random));
+        }
+        int endTime = events > 0 ? (int) Math.round(trace.positions[events - 1] * spacing) : 0;
+        out.i32((int) Math.round(totalLoss * 1000)).i32(0).i32(endTime).u16(30000).i32(0).i32(endTime);
+    }
+
+    private String string(SplittableRandom random) {
+        char[] chars = new char[stringLength];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 合成曲线及其事件
+     */
+    private static final class Trace {
+
+        /** 各事件的数据点序号，最后一个为光纤末端 */
+        private final int[] positions;
+        /** 各事件的损耗(dB)，光纤末端为0 */
+        private final double[] losses;
+        /** 各事件的反射率(dB)，非反射事件为0 */
+        private final double[] reflectances;
+        /** 原始数据点，0.001dB */
+        private final short[] samples;
+
+        Trace(SplittableRandom random, int points, int events, double kmPerPoint, double spacing, int pulseWidth) {
+            positions = new int[events];
+            losses = new double[events];
+            reflectances = new double[events];
+            int deadZone = Math.max(1, (int) Math.round(pulseWidth * 10 / spacing));
+            int end = points - points / 8 - random.nextInt(Math.max(1, points / 16));
+            int first = Math.min(deadZone * 4, end / 2);
+            for (int e = 0; e < events - 1; e++) {
+                positions[e] = first + random.nextInt(Math.max(1, end - first - deadZone * 2));
+            }
+            Arrays.sort(positions, 0, Math.max(0, events - 1));
+            for (int e = 0; e < events - 1; e++) {
+                losses[e] = 0.05 + random.nextDouble() * 0.75;
+                if (random.nextInt(10) < 3) {
+                    reflectances[e] = -60 + random.nextDouble() * 30;
+                }
+            }
+            if (events > 0) {
+                positions[events - 1] = end;
+                reflectances[events - 1] = -20 + random.nextDouble() * 6;
+            }
+
+            samples = new short[points];
+            double slope = ATTENUATION * kmPerPoint * 1000;
+            double level = 20000 + random.nextInt(5000);
+            //噪声幅度(0.001dB)，按功率下降比例增大
+            double noise = 3;
+            double noiseGrowth = Math.pow(10, slope / 1000 / 10);
+            long state = random.nextLong() | 1;
+            int event = 0;
+            int spikeEnd = -1;
+            double spike = 0;
+            int last = events > 0 ? end + deadZone : points;
+            for (int i = 0; i < points; i++) {
+                while (event < events && positions[event] == i) {
+                    level += losses[event] * 1000;
+                    noise *= Math.pow(10, losses[event] / 10);
+                    if (reflectances[event] != 0) {
+                        //R = BC + 10lg(10^(H/5) - 1) + 10lg(D)
+                        spike = 5000 * Math.log10(1 + Math.pow(10,
+                                (reflectances[event] - BACKSCATTER - 10 * Math.log10(pulseWidth)) / 10));
+                        spikeEnd = i + deadZone;
+                    }
+                    event++;
+                }
+                if (i >= last) {
+                    samples[i] = (short) NOISE_FLOOR;
+                    continue;
+                }
+                //xorshift，两个均匀分布之和为三角分布
+                state ^= state << 13;
+                state ^= state >>> 7;
+                state ^= state << 17;
+                double jitter = ((int) state + (int) (state >>> 32)) / 2147483648D;
+                double value = level + Math.min(noise, 3000) * jitter - (i < spikeEnd ? spike : 0);
+                samples[i] = (short) Math.max(0, Math.min(NOISE_FLOOR - 1, (int) value));
+                level += slope;
+                noise *= noiseGrowth;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: java SorGenerator directory files [points] [events] [landmarks] [seed]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int files = Integer.parseInt(args[1]);
+        SorGenerator generator = new SorGenerator(args.length > 5 ? Long.parseLong(args[5]) : 1)
+                .setPoints(args.length > 2 ? Integer.parseInt(args[2]) : 16 * 1024)
+                .setEvents(args.length > 3 ? Integer.parseInt(args[3]) : 16)
+                .setLandmarks(args.length > 4 ? Integer.parseInt(args[4]) : 0);
+        Files.createDirectories(directory);
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < files; i++) {
+            byte[] content = generator.generate(i);
+            Files.write(directory.resolve(String.format("generated-%06d.sor", i)), content);
+            bytes += content.length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d files, %.1f MB in %.2f s (%.1f MB/s)%n", files, bytes / 1048576D, seconds,
+                bytes / 1048576D / seconds);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * 流式解析回调
+ * <p>{@link SorStreamParser}按文件顺序回调，字段名称与{@link OTDRAnalysis#read(byte[])}结果中的键相同。
+ * 回调中传入的数组(数据点分块)在回调返回后会被复用，需要保留时请自行拷贝。所有方法默认不做任何处理</p>
+ *
+ * @author coderyong
+ */
+public interface SorHandler {
+
+    /**
+     * Map区块读取完成
+     *
+     * @param map 区块目录
+     */
+    default void startFile(SorMap map) {
+    }
+
+    /**
+     * 区块开始，未知区块(如厂商自定义区块)只回调开始和结束
+     *
+     * @param block 区块目录项
+     */
+    default void startBlock(SorBlock block) {
+    }
+
+    /**
+     * 整数字段
+     *
+     * @param name  字段名称
+     * @param value 字段值
+     */
+    default void field(String name, long value) {
+    }
+
+    /**
+     * 浮点字段
+     *
+     * @param name  字段名称
+     * @param value 字段值
+     */
+    default void field(String name, float value) {
+    }
+
+    /**
+     * 字符串字段
+     *
+     * @param name  字段名称
+     * @param value 字段值
+     */
+    default void field(String name, String value) {
+    }
+
+    /**
+     * 整数数组字段
+     *
+     * @param name   字段名称
+     * @param values 字段值
+     */
+    default void field(String name, int[] values) {
+    }
+
+    /**
+     * 浮点数组字段
+     *
+     * @param name   字段名称
+     * @param values 字段值
+     */
+    default void field(String name, float[] values) {
+    }
+
+    /**
+     * KeyEvents区块中的一个事件，在"eventsNumber"之后、"End-to-EndLoss"之前依次回调
+     *
+     * @param event 关键事件
+     */
+    default void keyEvent(KeyEvent event) {
+    }
+
+    /**
+     * LnkParams区块中的一个地标，在"landmarksNumber"之后依次回调
+     *
+     * @param landmark 地标
+     */
+    default void landmark(Landmark landmark) {
+    }
+
+    /**
+     * DataPts区块中的一批数据点，对应Map结果中的"scaleFactorN"；同一批数据点属于同一个比例因子分组
+     *
+     * @param index       第一个数据点的序号
+     * @param raw         无符号原始值，只有前length个有效
+     * @param length      数据点个数
+     * @param scaleFactor 所在分组的比例因子(1000表示1.0)
+     */
+    default void samples(int index, int[] raw, int length, int scaleFactor) {
+    }
+
+    /**
+     * 区块结束
+     *
+     * @param block 区块目录项
+     */
+    default void endBlock(SorBlock block) {
+    }
+
+    /**
+     * 文件结束
+     *
+     * @param checksumValid 校验和是否一致，文件中没有Cksum区块时为false
+     */
+    default void endFile(boolean checksumValid) {
+    }
+}
@@ -0,0 +1,55 @@
+import java.nio.file.Path;
+
+/**
+ * OTDR文件头信息
+ * <p>仅包含快速扫描读取的一般参数、供应商参数和固定参数，文件中不存在的区块对应的值为null</p>
+ *
+ * @author coderyong
+ */
+public final class SorHeader {
+
+    /** 文件路径 */
+    private final Path path;
+    /** 文件大小 */
+    private final long size;
+    private final GenParams genParams;
+    private final SupParams supParams;
+    private final FxdParams fxdParams;
+
+    SorHeader(Path path, long size, GenParams genParams, SupParams supParams, FxdParams fxdParams) {
+        this.path = path;
+        this.size = size;
+        this.genParams = genParams;
+        this.supParams = supParams;
+        this.fxdParams = fxdParams;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public GenParams getGenParams() {
+        return genParams;
+    }
+
+    public SupParams getSupParams() {
+        return supParams;
+    }
+
+    public FxdParams getFxdParams() {
+        return fxdParams;
+    }
+
+    /**
+     * 测量时间
+     *
+     * @return 秒，缺少固定参数块时返回-1
+     */
+    public long getTimeStamp() {
+        return fxdParams == null ? -1 : fxdParams.getTimeStamp();
+    }
+}
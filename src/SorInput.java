@@ -0,0 +1,169 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 输入流的定长缓冲读取
+ * <p>按需从输入流补充缓冲区，通过{@link SorCursor}解码缓冲区中的字段；单个字段或记录超过缓冲区时缓冲区按需扩大。
+ * 读入的字节在校验范围确定后累加计算CRC，跳过的字节同样计入</p>
+ *
+ * @author coderyong
+ */
+final class SorInput {
+
+    private final InputStream input;
+    private byte[] buffer;
+    private SorCursor cursor;
+    /** 缓冲区中下一个未读字节的位置 */
+    private int position;
+    /** 缓冲区中有效字节的结束位置 */
+    private int limit;
+    /** 缓冲区第一个字节在文件中的偏移量 */
+    private long offset;
+    private int crc = Crc16.INITIAL;
+    /** 校验范围的结束偏移量，-1表示尚未确定 */
+    private long crcEnd = -1;
+    /** 已计入校验和的结束偏移量 */
+    private long crcDone;
+
+    SorInput(InputStream input, int bufferSize) {
+        this.input = input;
+        this.buffer = new byte[bufferSize];
+        this.cursor = new SorCursor(buffer);
+    }
+
+    /**
+     * 当前读取位置在文件中的偏移量
+     */
+    long offset() {
+        return offset + position;
+    }
+
+    /**
+     * 保证缓冲区中有指定字节数
+     *
+     * @param length 字节数
+     * @return 限定在这些字节上的游标，读取后调用{@link #consume()}
+     */
+    SorCursor require(int length) throws IOException {
+        if (!fill(length)) {
+            throw new EOFException("unexpected end of stream at " + (offset + limit));
+        }
+        return cursor.range(position, length);
+    }
+
+    /**
+     * 保证缓冲区中有一条以0结尾的字符串收尾的记录
+     *
+     * @param fixed 字符串之前的定长字节数
+     * @param max   记录最大字节数(所在区块的剩余字节数)，达到该长度仍没有结束符时字符串截止于此
+     * @return 限定在记录上的游标，读取后调用{@link #consume()}
+     */
+    SorCursor requireZString(int fixed, int max) throws IOException {
+        int scanned = fixed;
+        while (true) {
+            int available = Math.min(limit - position, max);
+            for (int i = scanned; i < available; i++) {
+                if (buffer[position + i] == 0) {
+                    return cursor.range(position, i + 1);
+                }
+            }
+            if (available >= max) {
+                return cursor.range(position, max);
+            }
+            scanned = Math.max(scanned, available);
+            require(available + 1);
+        }
+    }
+
+    /**
+     * 读取位置移动到游标位置
+     */
+    void consume() {
+        position = cursor.position();
+    }
+
+    /**
+     * 跳过指定字节数，跳过的字节仍计入校验和
+     *
+     * @param length 字节数
+     */
+    void skip(long length) throws IOException {
+        while (length > 0) {
+            if (position == limit && !fill(1)) {
+                throw new EOFException("unexpected end of stream at " + (offset + limit));
+            }
+            int n = (int) Math.min(length, limit - position);
+            position += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * 确定校验范围，已读入的字节立即计入
+     *
+     * @param end 校验范围的结束偏移量(不含)
+     */
+    void checksumUntil(long end) {
+        if (offset > crcDone) {
+            throw new IllegalStateException("bytes before " + offset + " already discarded");
+        }
+        crcEnd = end;
+        update(0, limit);
+    }
+
+    /**
+     * 已读入的校验范围内字节的CRC
+     *
+     * @return CRC-16
+     */
+    int checksum() {
+        return crc ^ Crc16.XOR_OUT;
+    }
+
+    /**
+     * 从输入流补充缓冲区，直到有指定字节数或输入流结束
+     *
+     * @return 是否有指定字节数
+     */
+    private boolean fill(int length) throws IOException {
+        if (limit - position >= length) {
+            return true;
+        }
+        if (length > buffer.length - position) {
+            byte[] target = length > buffer.length ? new byte[Math.max(length, buffer.length * 2)] : buffer;
+            System.arraycopy(buffer, position, target, 0, limit - position);
+            if (target != buffer) {
+                buffer = target;
+                cursor = new SorCursor(buffer);
+            }
+            offset += position;
+            limit -= position;
+            position = 0;
+        }
+        while (limit - position < length) {
+            int n = input.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                return false;
+            }
+            update(limit, n);
+            limit += n;
+        }
+        return true;
+    }
+
+    /**
+     * 将缓冲区中新读入的字节计入校验和
+     */
+    private void update(int from, int length) {
+        if (crcEnd < 0) {
+            return;
+        }
+        long start = Math.max(offset + from, crcDone);
+        long end = Math.min(offset + from + length, crcEnd);
+        if (start < end) {
+            crc = Crc16.update(crc, buffer, (int) (start - offset), (int) (end - start));
+            crcDone = end;
+        }
+    }
+}
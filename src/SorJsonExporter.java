@@ -0,0 +1,296 @@
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON导出
+ * <p>边读取边写出，不生成中间的Map结构：输出为区块对象的数组，结构和字段名称与{@link OTDRAnalysis#read(byte[])}相同，
+ * 数值不装箱直接写出，DataPts的"scaleFactorN"按分块写出，内存占用与数据点数无关。浮点数按{@link Float#toString(float)}
+ * 格式写出，NaN和无穷大写为null。</p>
+ * <p>区块的"content"(原始字节)只在从字节数组导出时写出；从输入流导出时没有这一项</p>
+ *
+ * @author coderyong
+ * @see SorReader
+ */
+public final class SorJsonExporter {
+
+    /**
+     * 导出字节内容，包括各区块的"content"
+     *
+     * @param content 文件字节内容
+     * @param writer  输出，导出完成后flush但不关闭
+     */
+    public void export(byte[] content, Writer writer) throws IOException {
+        export(new SorReader(new ByteArrayInputStream(content)), content, new SorTextWriter(writer));
+    }
+
+    /**
+     * 导出输入流，不包括各区块的"content"
+     *
+     * @param input  文件输入流，由调用方关闭
+     * @param writer 输出，导出完成后flush但不关闭
+     */
+    public void export(InputStream input, Writer writer) throws IOException {
+        export(new SorReader(input), null, new SorTextWriter(writer));
+    }
+
+    /**
+     * 以UTF-8编码导出输入流，不包括各区块的"content"
+     *
+     * @param input  文件输入流，由调用方关闭
+     * @param output 输出，导出完成后flush但不关闭
+     */
+    public void export(InputStream input, OutputStream output) throws IOException {
+        export(input, new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    private void export(SorReader reader, byte[] content, SorTextWriter out) throws IOException {
+        //当前对象中是否还没有字段
+        boolean first = true;
+        //当前打开的数组名称及其中是否还没有元素
+        String array = null;
+        boolean firstElement = true;
+        boolean samples = false;
+        out.write('[');
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case FILE_START:
+                    SorMap map = reader.getMap();
+                    out.write("{\"blockId\":");
+                    string(out, map.getBlockId());
+                    out.write(",\"version\":").write(map.getVersion());
+                    out.write(",\"length\":").write(map.getLength());
+                    out.write(",\"blockCount\":").write(map.getBlockCount());
+                    if (content != null) {
+                        bytes(out, content, 0, map.getLength());
+                    }
+                    out.write('}');
+                    break;
+                case BLOCK_START:
+                    SorBlock block = reader.getBlock();
+                    out.write(",{\"blockId\":");
+                    string(out, block.getBlockId());
+                    out.write(",\"version\":").write(block.getVersion());
+                    out.write(",\"length\":").write(block.getLength());
+                    first = false;
+                    samples = false;
+                    break;
+                case FIELD:
+                    if (array != null) {
+                        out.write(']');
+                        array = null;
+                    }
+                    name(out, reader.getFieldName(), first);
+                    first = false;
+                    field(out, reader);
+                    if ("eventsNumber".equals(reader.getFieldName())) {
+                        array = "events";
+                    } else if ("landmarksNumber".equals(reader.getFieldName())) {
+                        array = "landmarks";
+                    } else {
+                        break;
+                    }
+                    name(out, array, false);
+                    out.write('[');
+                    firstElement = true;
+                    break;
+                case KEY_EVENT:
+                    if (!firstElement) {
+                        out.write(',');
+                    }
+                    firstElement = false;
+                    keyEvent(out, reader.getKeyEvent());
+                    break;
+                case LANDMARK:
+                    if (!firstElement) {
+                        out.write(',');
+                    }
+                    firstElement = false;
+                    landmark(out, reader.getLandmark());
+                    break;
+                case SAMPLES:
+                    if (array == null) {
+                        array = "scaleFactorN";
+                        name(out, array, false);
+                        out.write('[');
+                        firstElement = true;
+                        samples = true;
+                    }
+                    int[] raw = reader.getSamples();
+                    for (int i = 0, n = reader.getSampleCount(); i < n; i++) {
+                        if (!firstElement) {
+                            out.write(',');
+                        }
+                        firstElement = false;
+                        out.write(raw[i]);
+                    }
+                    break;
+                case BLOCK_END:
+                    if (array != null) {
+                        out.write(']');
+                        array = null;
+                    }
+                    block = reader.getBlock();
+                    if (block.type() == SorBlockRegistry.DATA_PTS && !samples) {
+                        out.write(",\"scaleFactorN\":[]");
+                    }
+                    if (content != null) {
+                        bytes(out, content, block.getOffset(), block.getLength());
+                    }
+                    out.write('}');
+                    break;
+                case FILE_END:
+                    break;
+            }
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    private static void field(SorTextWriter out, SorReader reader) throws IOException {
+        switch (reader.getFieldType()) {
+            case LONG:
+                out.write(reader.getLong());
+                break;
+            case FLOAT:
+                number(out, reader.getFloat());
+                break;
+            case STRING:
+                string(out, reader.getString());
+                break;
+            case INTS:
+                ints(out, reader.getInts());
+                break;
+            case FLOATS:
+                out.write('[');
+                float[] values = reader.getFloats();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    number(out, values[i]);
+                }
+                out.write(']');
+                break;
+        }
+    }
+
+    private static void keyEvent(SorTextWriter out, KeyEvent event) throws IOException {
+        out.write("{\"eventNumber\":").write(event.getEventNumber());
+        out.write(",\"eventPropagationTime\":").write(event.getEventPropagationTime());
+        out.write(",\"attenuation\":");
+        number(out, event.getAttenuation());
+        out.write(",\"eventLoss\":");
+        number(out, event.getEventLoss());
+        out.write(",\"eventReflectance\":");
+        number(out, event.getEventReflectance());
+        out.write(",\"eventCode\":");
+        string(out, event.getEventCode());
+        out.write(",\"lossMeasurementTechnique\":");
+        string(out, event.getLossMeasurementTechnique());
+        out.write(",\"markerLocations\":");
+        ints(out, event.rawMarkerLocations());
+        out.write(",\"comment\":");
+        string(out, event.getComment());
+        out.write('}');
+    }
+
+    private static void landmark(SorTextWriter out, Landmark landmark) throws IOException {
+        out.write("{\"landmarkNumber\":").write(landmark.getLandmarkNumber());
+        out.write(",\"landmarkCode\":");
+        string(out, landmark.getLandmarkCode());
+        out.write(",\"landmarkLocation\":").write(landmark.getLandmarkLocation());
+        out.write(",\"relatedEventNumber\":").write(landmark.getRelatedEventNumber());
+        out.write(",\"GPSInformation\":[").write(landmark.getLongitude()).write(',').write(landmark.getLatitude());
+        out.write("],\"correctionFactor\":");
+        string(out, landmark.getCorrectionFactor() + "%");
+        out.write(",\"enteringLandmark\":").write(landmark.getEnteringLandmark());
+        out.write(",\"leavingLandmark\":");
+        string(out, landmark.getLeavingLandmark() + landmark.getLeavingLandmarkUnits());
+        out.write(",\"diameterLeavingLandmark\":");
+        string(out, landmark.getDiameterLeavingLandmark());
+        out.write(",\"comment\":");
+        string(out, landmark.getComment());
+        out.write('}');
+    }
+
+    private static void name(SorTextWriter out, String name, boolean first) throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        string(out, name);
+        out.write(':');
+    }
+
+    private static void number(SorTextWriter out, float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            out.write("null");
+        } else {
+            out.write(value);
+        }
+    }
+
+    private static void ints(SorTextWriter out, int[] values) throws IOException {
+        out.write('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(values[i]);
+        }
+        out.write(']');
+    }
+
+    private static void bytes(SorTextWriter out, byte[] content, int offset, int length) throws IOException {
+        out.write(",\"content\":[");
+        int end = Math.min(offset + length, content.length);
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                out.write(',');
+            }
+            out.write(content[i]);
+        }
+        out.write(']');
+    }
+
+    private static void string(SorTextWriter out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write("\\u00").write(Character.forDigit(c >> 4, 16)).write(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.write(c);
+                    }
+                    break;
+            }
+        }
+        out.write('"');
+    }
+}
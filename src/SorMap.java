@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Map区块(区块目录)
+ *
+ * @author coderyong
+ */
+public final class SorMap {
+
+    /** 区块名称 */
+    private final String blockId;
+    /** 区块版本 */
+    private final int version;
+    /** Map区块长度 */
+    private final int length;
+    /** 区块数(包含Map区块本身) */
+    private final int blockCount;
+    /** 其余区块目录项，按文件中的顺序排列 */
+    private final List<SorBlock> blocks;
+
+    SorMap(SorCursor cursor) {
+        blockId = cursor.zString();
+        version = cursor.u16();
+        length = cursor.i32();
+        blockCount = cursor.u16();
+
+        List<SorBlock> blocks = new ArrayList<>(Math.max(blockCount - 1, 0));
+        int contentOffset = length;
+        while (cursor.position() < length) {
+            String id = cursor.zString();
+            int blockVersion = cursor.u16();
+            int blockLength = cursor.i32();
+            blocks.add(new SorBlock(id, blockVersion, blockLength, contentOffset, blocks.size()));
+            contentOffset += blockLength;
+        }
+        this.blocks = Collections.unmodifiableList(blocks);
+    }
+
+    public String getBlockId() {
+        return blockId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public List<SorBlock> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * 查找区块目录项
+     *
+     * @param blockId 区块名称
+     * @return 第一个名称相同的目录项，不存在时返回null
+     */
+    public SorBlock find(String blockId) {
+        for (SorBlock block : blocks) {
+            if (block.getBlockId().equals(blockId)) {
+                return block;
+            }
+        }
+        return null;
+    }
+}
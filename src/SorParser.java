@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import jdk.jfr.EventType;
+
+/**
+ * OTDR(SOR)文件解析器
+ * <p>直接将各区块解析为{@link SorFile}等类型化对象，字段均为基本类型，不经过Map。
+ * 解析和校验时发出JFR事件(otdr.FileParsed、otdr.BlockDecoded、otdr.ChecksumVerified)；
+ * otdr.FileParsed默认只记录耗时超过1ms的文件，区块和校验和事件开启后全部记录，校验失败不会被阈值过滤。
+ * 未开启记录时区块事件不会创建</p>
+ *
+ * @author coderyong
+ */
+public class SorParser {
+
+    private static final EventType BLOCK_EVENT = EventType.getEventType(SorBlockDecodedEvent.class);
+
+    /**
+     * 解析OTDR文件
+     *
+     * @param path 文件路径
+     * @return 解析结果
+     */
+    public static SorFile parse(Path path) throws IOException {
+        return parse(path, null);
+    }
+
+    /**
+     * 解析OTDR文件中的指定区块
+     * <p>文件以只读方式映射，未指定的区块不会被读取</p>
+     *
+     * @param path     文件路径
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @return 解析结果
+     */
+    public static SorFile parse(Path path, Set<String> blockIds) throws IOException {
+        return parse(path, blockIds, ParseListener.NONE);
+    }
+
+    /**
+     * 解析OTDR字节内容
+     *
+     * @param content 字节内容
+     * @return 解析结果
+     */
+    public static SorFile parse(byte[] content) {
+        return parse(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * 解析OTDR缓冲区内容
+     *
+     * @param content 缓冲区内容，从当前位置开始解析
+     * @return 解析结果
+     */
+    public static SorFile parse(ByteBuffer content) {
+        return parse(content, null);
+    }
+
+    /**
+     * 解析OTDR缓冲区内容中的指定区块
+     * <p>根据Map区块目录计算各区块位置，直接跳转到需要的区块，其余区块的字节不会被访问</p>
+     *
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @return 解析结果
+     */
+    public static SorFile parse(ByteBuffer content, Set<String> blockIds) {
+        return parse(null, content, blockIds, ParseListener.NONE);
+    }
+
+    /**
+     * 解析OTDR缓冲区内容中的指定区块，并向监听回调各区块和整个文件的耗时
+     *
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @param listener 解析监听
+     * @return 解析结果
+     */
+    public static SorFile parse(ByteBuffer content, Set<String> blockIds, ParseListener listener) {
+        return parse(null, content, blockIds, listener);
+    }
+
+    /**
+     * 使用指定注册表解析OTDR缓冲区内容
+     * <p>注册表中的其余区块解码器在第一次通过{@link SorFile#getValue(SorBlock)}访问时才运行</p>
+     *
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要解析的标准区块名称，null表示全部区块
+     * @param registry 区块解码器注册表
+     * @return 解析结果
+     */
+    public static SorFile parse(ByteBuffer content, Set<String> blockIds, SorBlockRegistry registry) {
+        return parse(null, content, blockIds, registry, ParseListener.NONE);
+    }
+
+    /**
+     * 使用指定注册表解析OTDR文件
+     *
+     * @param path     文件路径
+     * @param blockIds 需要解析的标准区块名称，null表示全部区块
+     * @param registry 区块解码器注册表
+     * @return 解析结果
+     */
+    public static SorFile parse(Path path, Set<String> blockIds, SorBlockRegistry registry) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), blockIds, registry,
+                    ParseListener.NONE);
+        }
+    }
+
+    /**
+     * 解析OTDR文件中的指定区块，并向监听回调各区块和整个文件的耗时
+     *
+     * @param path     文件路径
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @param listener 解析监听
+     * @return 解析结果
+     */
+    public static SorFile parse(Path path, Set<String> blockIds, ParseListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), blockIds, listener);
+        }
+    }
+
+    /**
+     * 解析OTDR缓冲区内容
+     *
+     * @param path     文件路径，只用于回调，可以为null
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @param listener 解析监听，{@link ParseListener#NONE}时不读取时钟
+     * @return 解析结果
+     */
+    static SorFile parse(Path path, ByteBuffer content, Set<String> blockIds, ParseListener listener) {
+        return parse(path, content, blockIds, SorBlockRegistry.getDefault(), listener);
+    }
+
+    /**
+     * 解析OTDR缓冲区内容
+     * <p>标准区块按Map目录项解析时确定的类型分派并立即解码；每个目录项的解码器从注册表取出一次，保存在解析结果中</p>
+     *
+     * @param path     文件路径，只用于回调，可以为null
+     * @param content  缓冲区内容，从当前位置开始解析
+     * @param blockIds 需要解析的区块名称，null表示全部区块
+     * @param registry 区块解码器注册表
+     * @param listener 解析监听，{@link ParseListener#NONE}时不读取时钟
+     * @return 解析结果
+     */
+    static SorFile parse(Path path, ByteBuffer content, Set<String> blockIds, SorBlockRegistry registry,
+                         ParseListener listener) {
+        boolean timed = listener != ParseListener.NONE;
+        long fileStart = timed ? System.nanoTime() : 0;
+        //JFR未记录时不创建区块事件
+        SorFileParsedEvent fileEvent = new SorFileParsedEvent();
+        boolean recordBlocks = BLOCK_EVENT.isEnabled();
+        fileEvent.begin();
+        content = content.slice().order(ByteOrder.LITTLE_ENDIAN);
+        SorCursor cursor = new SorCursor(content);
+        SorMap map = new SorMap(cursor);
+
+        GenParams genParams = null;
+        SupParams supParams = null;
+        FxdParams fxdParams = null;
+        KeyEvents keyEvents = null;
+        LnkParams lnkParams = null;
+        DataPoints dataPoints = null;
+        Checksum checksum = null;
+        List<SorBlock> blocks = map.getBlocks();
+        SorBlockDecoder<?>[] decoders = new SorBlockDecoder<?>[blocks.size()];
+        Object[] values = new Object[blocks.size()];
+        int decoded = 0;
+        for (SorBlock block : blocks) {
+            decoders[block.index()] = registry.find(block.getBlockId());
+            if (blockIds != null && !blockIds.contains(block.getBlockId())) {
+                continue;
+            }
+            long blockStart = timed ? System.nanoTime() : 0;
+            SorBlockDecodedEvent blockEvent = null;
+            if (recordBlocks) {
+                blockEvent = new SorBlockDecodedEvent();
+                blockEvent.begin();
+            }
+            int objects = 1;
+            cursor.range(block.getOffset(), block.getLength());
+            Object value;
+            switch (block.type()) {
+                case SorBlockRegistry.GEN_PARAMS:
+                    value = genParams = new GenParams(cursor);
+                    break;
+                case SorBlockRegistry.SUP_PARAMS:
+                    value = supParams = new SupParams(cursor);
+                    break;
+                case SorBlockRegistry.FXD_PARAMS:
+                    value = fxdParams = new FxdParams(cursor);
+                    break;
+                case SorBlockRegistry.KEY_EVENTS:
+                    value = keyEvents = new KeyEvents(cursor);
+                    objects = keyEvents.getEventsNumber();
+                    break;
+                case SorBlockRegistry.LNK_PARAMS:
+                    value = lnkParams = new LnkParams(cursor);
+                    objects = lnkParams.getLandmarksNumber();
+                    break;
+                case SorBlockRegistry.DATA_PTS:
+                    value = dataPoints = new DataPoints(cursor);
+                    objects = dataPoints.size();
+                    break;
+                case SorBlockRegistry.CHECKSUM:
+                    value = checksum = new Checksum(cursor);
+                    break;
+                default:
+                    //其余区块在访问时才解码
+                    continue;
+            }
+            //注册表中仍是内置解码器时，访问区块值直接使用已解码的结果
+            if (decoders[block.index()] == SorBlockRegistry.STANDARD[block.type()]) {
+                values[block.index()] = value;
+            }
+            decoded++;
+            if (blockEvent != null) {
+                blockEvent.end();
+                if (blockEvent.shouldCommit()) {
+                    blockEvent.blockId = block.getBlockId();
+                    blockEvent.length = block.getLength();
+                    blockEvent.commit();
+                }
+            }
+            if (timed) {
+                listener.onBlock(block.getBlockId(), block.getLength(), objects, System.nanoTime() - blockStart);
+            }
+        }
+        SorFile file = new SorFile(content, map, blockIds, genParams, supParams, fxdParams, keyEvents, lnkParams,
+                dataPoints, checksum, decoders, values);
+        fileEvent.end();
+        if (fileEvent.shouldCommit()) {
+            fileEvent.path = path == null ? null : path.toString();
+            fileEvent.bytes = content.remaining();
+            fileEvent.blockCount = decoded;
+            fileEvent.commit();
+        }
+        if (timed) {
+            listener.onFile(path, content.remaining(), decoded, System.nanoTime() - fileStart);
+        }
+        return file;
+    }
+
+    /**
+     * 校验OTDR文件
+     * <p>只解析Map区块，在映射缓冲区上直接计算校验和，适合批量完整性检查</p>
+     *
+     * @param path 文件路径
+     * @return 校验和是否一致，文件中没有Cksum区块时返回false
+     */
+    public static boolean verify(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return verify(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 校验OTDR缓冲区内容
+     *
+     * @param content 缓冲区内容，从当前位置开始校验
+     * @return 校验和是否一致，文件中没有Cksum区块时返回false
+     */
+    public static boolean verify(ByteBuffer content) {
+        content = content.slice().order(ByteOrder.LITTLE_ENDIAN);
+        return verify(content, new SorMap(new SorCursor(content)));
+    }
+
+    /**
+     * 校验Cksum区块中保存的校验和
+     * <p>校验范围为文件开头到校验和数值之前的全部字节</p>
+     *
+     * @param content 缓冲区内容
+     * @param map     区块目录
+     * @return 校验和是否一致，文件中没有Cksum区块时返回false
+     */
+    static boolean verify(ByteBuffer content, SorMap map) {
+        SorBlock block = map.find("Cksum");
+        if (block == null) {
+            return false;
+        }
+        SorChecksumEvent event = new SorChecksumEvent();
+        event.begin();
+        SorCursor cursor = new SorCursor(content);
+        cursor.range(block.getOffset(), block.getLength()).skipZString();
+        int length = cursor.position();
+        boolean valid = cursor.u16() == Crc16.compute(content, 0, length);
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = length;
+            event.valid = valid;
+            event.commit();
+        }
+        return valid;
+    }
+
+    /**
+     * 截取区块视图
+     *
+     * @param b      缓冲区内容
+     * @param offset 起始位置偏移量
+     * @param length 区块长度
+     * @return 与原缓冲区共享内容的"小端"视图
+     */
+    static ByteBuffer slice(ByteBuffer b, int offset, int length) {
+        ByteBuffer view = b.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,547 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * OTDR(SOR)拉取式读取器
+ * <p>与{@link SorStreamParser}相同的流式读取，由调用方通过{@link #next()}逐个取得标记：</p>
+ * <ul>
+ * <li>先读取Map区块，按其中的区块目录(各区块的偏移量和长度)顺序读取各区块</li>
+ * <li>区块内依次为字段、关键事件、地标、数据点分块等标记，字段名称与{@link OTDRAnalysis#read(byte[])}结果中的键相同</li>
+ * <li>{@link #skipBlock()}跳过当前区块的剩余内容而不解码；调用方可以随时停止读取，
+ * 例如读完KeyEvents后不再读取DataPts</li>
+ * </ul>
+ * <p>标记的数据只在下一次调用{@link #next()}之前有效，数据点分块的数组会被复用。
+ * 实例不是线程安全的；输入流由调用方关闭</p>
+ *
+ * @author coderyong
+ */
+public final class SorReader {
+
+    /**
+     * 标记类型
+     */
+    public enum Token {
+        /** Map区块读取完成，{@link #getMap()}可用 */
+        FILE_START,
+        /** 区块开始，{@link #getBlock()}可用；未知区块只有开始和结束 */
+        BLOCK_START,
+        /** 字段，{@link #getFieldName()}、{@link #getFieldType()}及对应的取值方法可用 */
+        FIELD,
+        /** 关键事件，{@link #getKeyEvent()}可用 */
+        KEY_EVENT,
+        /** 地标，{@link #getLandmark()}可用 */
+        LANDMARK,
+        /** 数据点分块，{@link #getSamples()}等方法可用 */
+        SAMPLES,
+        /** 区块结束 */
+        BLOCK_END,
+        /** 文件结束，{@link #isChecksumValid()}可用 */
+        FILE_END
+    }
+
+    /**
+     * 字段值类型
+     */
+    public enum FieldType {
+        /** {@link #getLong()} */
+        LONG,
+        /** {@link #getFloat()} */
+        FLOAT,
+        /** {@link #getString()} */
+        STRING,
+        /** {@link #getInts()} */
+        INTS,
+        /** {@link #getFloats()} */
+        FLOATS
+    }
+
+    static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+    /** 每个分块的最大数据点数 */
+    private static final int SAMPLE_CHUNK = 1024;
+    /** Map区块名称的最大字节数 */
+    private static final int MAX_MAP_ID = 64;
+    /** 关键事件备注之前的定长字节数 */
+    private static final int KEY_EVENT_FIXED = 42;
+    /** 地标备注之前的定长字节数 */
+    private static final int LANDMARK_FIXED = 32;
+    /** 区块内最多连续的字段数(FxdParams) */
+    private static final int MAX_FIELDS = 32;
+
+    //区块内的读取阶段
+    private static final int HEADER = 0;
+    private static final int RECORDS = 1;
+    private static final int GROUP = 2;
+    private static final int GROUP_SAMPLES = 3;
+    private static final int DONE = 4;
+
+    private final SorInput in;
+    private SorMap map;
+    private SorBlock checksumBlock;
+    private boolean checksumValid;
+    private Token token;
+
+    /** 当前区块序号，-1表示Map区块 */
+    private int blockIndex = -1;
+    private SorBlock block;
+    private long blockEnd;
+    private int phase;
+    /** KeyEvents、LnkParams剩余记录数，DataPts剩余分组数 */
+    private int remainingRecords;
+    /** DataPts当前分组剩余数据点数 */
+    private int remainingSamples;
+    private int groupIndex;
+
+    //待返回的字段
+    private final String[] fieldNames = new String[MAX_FIELDS];
+    private final FieldType[] fieldTypes = new FieldType[MAX_FIELDS];
+    private final long[] longValues = new long[MAX_FIELDS];
+    private final float[] floatValues = new float[MAX_FIELDS];
+    private final Object[] objectValues = new Object[MAX_FIELDS];
+    private int fieldCount;
+    private int field = -1;
+
+    private FxdParams fxdParams;
+    private KeyEvent keyEvent;
+    private Landmark landmark;
+    private final int[] samples = new int[SAMPLE_CHUNK];
+    private int sampleIndex;
+    private int sampleCount;
+    private int scaleFactor;
+
+    /**
+     * @param input 输入流，从当前位置开始读取
+     */
+    public SorReader(InputStream input) {
+        this(input, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param input      输入流，从当前位置开始读取
+     * @param bufferSize 初始缓冲区字节数，不少于256
+     */
+    public SorReader(InputStream input, int bufferSize) {
+        if (bufferSize < 256) {
+            throw new IllegalArgumentException("bufferSize must be at least 256: " + bufferSize);
+        }
+        this.in = new SorInput(input, bufferSize);
+    }
+
+    /**
+     * 是否还有标记
+     *
+     * @return 尚未返回{@link Token#FILE_END}时为true
+     */
+    public boolean hasNext() {
+        return token != Token.FILE_END;
+    }
+
+    /**
+     * 读取下一个标记
+     *
+     * @return 标记类型
+     */
+    public Token next() throws IOException {
+        if (token == Token.FILE_END) {
+            throw new NoSuchElementException("end of file");
+        }
+        token = advance();
+        return token;
+    }
+
+    /**
+     * 跳过当前区块的剩余内容，不解码；下一次{@link #next()}返回该区块的{@link Token#BLOCK_END}。
+     * 跳过的字节仍计入校验和，但跳过Cksum区块时不再校验
+     */
+    public void skipBlock() {
+        if (block == null) {
+            throw new IllegalStateException("not inside a block");
+        }
+        fieldCount = 0;
+        phase = DONE;
+    }
+
+    private Token advance() throws IOException {
+        if (++field < fieldCount) {
+            return Token.FIELD;
+        }
+        fieldCount = 0;
+        if (map == null) {
+            readMap();
+            return Token.FILE_START;
+        }
+        if (block == null) {
+            return startBlock();
+        }
+        while (true) {
+            Token next = readBlock();
+            if (next != null) {
+                return next;
+            }
+            if (fieldCount > 0) {
+                field = 0;
+                return Token.FIELD;
+            }
+        }
+    }
+
+    private void readMap() throws IOException {
+        int idLength = in.requireZString(0, MAX_MAP_ID).limit();
+        int mapLength = in.require(idLength + 6).skip(idLength + 2).i32();
+        //Map区块位于缓冲区开头，游标位置即文件偏移量
+        map = new SorMap(in.require(mapLength));
+        in.consume();
+        checksumBlock = map.find("Cksum");
+        if (checksumBlock != null) {
+            in.checksumUntil(checksumBlock.getOffset() + checksumBlock.getBlockId().length() + 1L);
+        }
+    }
+
+    private Token startBlock() throws IOException {
+        if (++blockIndex >= map.getBlocks().size()) {
+            return Token.FILE_END;
+        }
+        block = map.getBlocks().get(blockIndex);
+        long gap = block.getOffset() - in.offset();
+        if (gap < 0) {
+            throw new IOException("block " + block.getBlockId() + " at " + block.getOffset()
+                    + " overlaps previous block ending at " + in.offset());
+        }
+        in.skip(gap);
+        blockEnd = block.getOffset() + (long) block.getLength();
+        phase = HEADER;
+        return Token.BLOCK_START;
+    }
+
+    /**
+     * 读取当前区块的下一部分
+     *
+     * @return 标记，只产生了待返回字段或阶段切换时为null
+     */
+    private Token readBlock() throws IOException {
+        if (phase == DONE) {
+            in.skip(blockEnd - in.offset());
+            block = null;
+            return Token.BLOCK_END;
+        }
+        switch (block.type()) {
+            case SorBlockRegistry.GEN_PARAMS:
+                genParams(new GenParams(in.require(block.getLength())));
+                phase = DONE;
+                return null;
+            case SorBlockRegistry.SUP_PARAMS:
+                supParams(new SupParams(in.require(block.getLength())));
+                phase = DONE;
+                return null;
+            case SorBlockRegistry.FXD_PARAMS:
+                fxdParams = new FxdParams(in.require(block.getLength()));
+                fxdParams(fxdParams);
+                phase = DONE;
+                return null;
+            case SorBlockRegistry.KEY_EVENTS:
+                return keyEvents();
+            case SorBlockRegistry.LNK_PARAMS:
+                return lnkParams();
+            case SorBlockRegistry.DATA_PTS:
+                return dataPoints();
+            case SorBlockRegistry.CHECKSUM:
+                Checksum checksum = new Checksum(in.require(block.getLength()));
+                checksumValid = block == checksumBlock && checksum.getChecksum() == in.checksum();
+                addField("checksum", checksum.getChecksum());
+                phase = DONE;
+                return null;
+            default:
+                phase = DONE;
+                return null;
+        }
+    }
+
+    private Token keyEvents() throws IOException {
+        if (phase == HEADER) {
+            skipBlockId();
+            remainingRecords = require(2).u16();
+            in.consume();
+            addField("eventsNumber", remainingRecords);
+            phase = RECORDS;
+            return null;
+        }
+        if (remainingRecords > 0) {
+            remainingRecords--;
+            keyEvent = new KeyEvent(in.requireZString(KEY_EVENT_FIXED, remaining()));
+            in.consume();
+            return Token.KEY_EVENT;
+        }
+        SorCursor cursor = require(22);
+        addField("End-to-EndLoss", cursor.i32() / 1000F);
+        addField("End-to-EndMarkerPositions", new int[]{cursor.i32(), cursor.i32()});
+        addField("opticalReturnLoss", cursor.u16() / 1000F);
+        addField("opticalReturnMarkerPosition", new int[]{cursor.i32(), cursor.i32()});
+        in.consume();
+        phase = DONE;
+        return null;
+    }
+
+    private Token lnkParams() throws IOException {
+        if (phase == HEADER) {
+            skipBlockId();
+            remainingRecords = require(2).u16();
+            in.consume();
+            addField("landmarksNumber", remainingRecords);
+            phase = RECORDS;
+            return null;
+        }
+        if (remainingRecords > 0) {
+            remainingRecords--;
+            landmark = new Landmark(in.requireZString(LANDMARK_FIXED, remaining()));
+            in.consume();
+            return Token.LANDMARK;
+        }
+        phase = DONE;
+        return null;
+    }
+
+    private Token dataPoints() throws IOException {
+        SorCursor cursor;
+        switch (phase) {
+            case HEADER:
+                skipBlockId();
+                cursor = require(6);
+                addField("pointsNumber", cursor.i32());
+                remainingRecords = cursor.u16();
+                addField("scaleFactors", remainingRecords);
+                in.consume();
+                groupIndex = 0;
+                sampleIndex = 0;
+                sampleCount = 0;
+                phase = GROUP;
+                return null;
+            case GROUP:
+                if (remainingRecords == 0) {
+                    phase = DONE;
+                    return null;
+                }
+                remainingRecords--;
+                cursor = require(6);
+                remainingSamples = cursor.i32();
+                scaleFactor = cursor.u16();
+                in.consume();
+                if (groupIndex++ == 0) {
+                    addField("totalScaleFactors", remainingSamples);
+                    addField("scaleFactor1", scaleFactor);
+                }
+                phase = GROUP_SAMPLES;
+                return null;
+            default:
+                if (remainingSamples <= 0) {
+                    phase = GROUP;
+                    return null;
+                }
+                sampleIndex += sampleCount;
+                sampleCount = Math.min(remainingSamples, SAMPLE_CHUNK);
+                cursor = require(sampleCount * 2);
+                for (int i = 0; i < sampleCount; i++) {
+                    samples[i] = cursor.u16();
+                }
+                in.consume();
+                remainingSamples -= sampleCount;
+                return Token.SAMPLES;
+        }
+    }
+
+    private void genParams(GenParams params) {
+        addField("languageCode", params.getLanguageCode());
+        addField("cableId", params.getCableId());
+        addField("fiberID", params.getFiberId());
+        addField("fiberType", params.getFiberType());
+        addField("wavelength", params.getWavelength());
+        addField("originatingLocation", params.getOriginatingLocation());
+        addField("terminatingLocation", params.getTerminatingLocation());
+        addField("cableCode", params.getCableCode());
+        addField("dataFlag", params.getDataFlag());
+        addField("userOffset", params.getUserOffset());
+        addField("userOffsetDistance", params.getUserOffsetDistance());
+        addField("operator", params.getOperator());
+        addField("comment", params.getComment());
+    }
+
+    private void supParams(SupParams params) {
+        addField("supplierName", params.getSupplierName());
+        addField("mainframeId", params.getMainframeId());
+        addField("mainframeSOrN", params.getMainframeSOrN());
+        addField("opticalModuleId", params.getOpticalModuleId());
+        addField("opticalModuleSOrN", params.getOpticalModuleSOrN());
+        addField("softwareRevision", params.getSoftwareRevision());
+        addField("other", params.getOther());
+    }
+
+    private void fxdParams(FxdParams params) {
+        addField("timeStamp", (int) params.getTimeStamp() * 1000);
+        addField("distanceUnits", params.getDistanceUnits());
+        addField("actualWavelength", params.getActualWavelength());
+        addField("acquisitionOffset", params.getAcquisitionOffset());
+        addField("acquisitionOffsetDistance", params.getAcquisitionOffsetDistance());
+        addField("pulseNumber", params.getPulseNumber());
+        addField("pulseWidths", params.getPulseWidths());
+        addField("dataSpacing", params.getDataSpacing());
+        addField("dataPoints", params.getDataPoints());
+        addField("groupIndex", params.getGroupIndex());
+        addField("backscatterCoefficient", params.getBackscatterCoefficient());
+        addField("averages", params.getAverages());
+        addField("averagingTime", params.getAveragingTime());
+        addField("acquisitionRange", params.getAcquisitionRange());
+        addField("acquisitionRangeDistance", params.getAcquisitionRangeDistance());
+        addField("frontPanelOffset", params.getFrontPanelOffset());
+        addField("noiseFloorLevel", params.getNoiseFloorLevel());
+        addField("noiseFloorScaleFactor", params.getNoiseFloorScaleFactor());
+        addField("powerOffsetFirstPoint", params.getPowerOffsetFirstPoint());
+        addField("lossThreshold", params.getLossThreshold());
+        addField("reflectanceThreshold", params.getReflectanceThreshold());
+        addField("endThreshold", params.getEndThreshold());
+        addField("traceType", params.getTraceType());
+        addField("windowCoordinates", params.getWindowCoordinates());
+    }
+
+    private void addField(String name, long value) {
+        longValues[fieldCount] = value;
+        addField(name, FieldType.LONG, null);
+    }
+
+    private void addField(String name, float value) {
+        floatValues[fieldCount] = value;
+        addField(name, FieldType.FLOAT, null);
+    }
+
+    private void addField(String name, String value) {
+        addField(name, FieldType.STRING, value);
+    }
+
+    private void addField(String name, int[] value) {
+        addField(name, FieldType.INTS, value);
+    }
+
+    private void addField(String name, float[] value) {
+        addField(name, FieldType.FLOATS, value);
+    }
+
+    private void addField(String name, FieldType type, Object value) {
+        fieldNames[fieldCount] = name;
+        fieldTypes[fieldCount] = type;
+        objectValues[fieldCount] = value;
+        fieldCount++;
+    }
+
+    /**
+     * 跳过区块开头的区块名称
+     */
+    private void skipBlockId() throws IOException {
+        in.requireZString(0, remaining()).skipZString();
+        in.consume();
+    }
+
+    /**
+     * 在区块范围内读取定长字节
+     */
+    private SorCursor require(int length) throws IOException {
+        if (length > remaining()) {
+            throw new IndexOutOfBoundsException("read " + length + " bytes at " + in.offset() + " exceeds " + blockEnd);
+        }
+        return in.require(length);
+    }
+
+    private int remaining() {
+        return (int) Math.max(0, blockEnd - in.offset());
+    }
+
+    /**
+     * Map区块，{@link Token#FILE_START}之后可用
+     */
+    public SorMap getMap() {
+        return map;
+    }
+
+    /**
+     * 当前区块，区块结束后仍为该区块直到下一个区块开始
+     */
+    public SorBlock getBlock() {
+        return block != null ? block : blockIndex >= 0 && blockIndex < map.getBlocks().size()
+                ? map.getBlocks().get(blockIndex) : null;
+    }
+
+    public String getFieldName() {
+        return fieldNames[field];
+    }
+
+    public FieldType getFieldType() {
+        return fieldTypes[field];
+    }
+
+    public long getLong() {
+        return longValues[field];
+    }
+
+    public float getFloat() {
+        return floatValues[field];
+    }
+
+    public String getString() {
+        return (String) objectValues[field];
+    }
+
+    public int[] getInts() {
+        return (int[]) objectValues[field];
+    }
+
+    public float[] getFloats() {
+        return (float[]) objectValues[field];
+    }
+
+    /**
+     * 已读取的FxdParams区块，用于按原始值换算距离；还没有读到时为null
+     */
+    FxdParams fxdParams() {
+        return fxdParams;
+    }
+
+    public KeyEvent getKeyEvent() {
+        return keyEvent;
+    }
+
+    public Landmark getLandmark() {
+        return landmark;
+    }
+
+    /**
+     * 分块中第一个数据点的序号
+     */
+    public int getSampleIndex() {
+        return sampleIndex;
+    }
+
+    /**
+     * 分块的数据点个数
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * 分块的无符号原始值，只有前{@link #getSampleCount()}个有效，数组在读取下一个分块时复用
+     */
+    public int[] getSamples() {
+        return samples;
+    }
+
+    /**
+     * 分块所在分组的比例因子(1000表示1.0)
+     */
+    public int getScaleFactor() {
+        return scaleFactor;
+    }
+
+    /**
+     * 校验和是否一致，{@link Token#FILE_END}之后可用；文件中没有Cksum区块时为false
+     */
+    public boolean isChecksumValid() {
+        return checksumValid;
+    }
+}
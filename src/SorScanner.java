@@ -0,0 +1,174 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * OTDR文件头快速扫描
+ * <p>只读取Map区块以及一般参数、供应商参数、固定参数区块，通过定位读取获取所需字节，
+ * 不会读取或映射数据点等其余区块。文件截断或区块长度超出文件大小时抛出IOException，说明区块名称和位置。
+ * 扫描器复用内部缓冲区，同一实例不能在多个线程中同时使用</p>
+ *
+ * @author coderyong
+ */
+public class SorScanner {
+
+    /** 首次读取的字节数，通常已覆盖Map及文件头区块 */
+    private static final int HEAD_LENGTH = 4096;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(HEAD_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * 扫描目录下所有.sor文件的文件头，遇到无法读取或损坏的文件时停止并抛出异常
+     *
+     * @param directory 目录
+     * @param consumer  文件头处理
+     */
+    public static void scanDirectory(Path directory, Consumer<SorHeader> consumer) throws IOException {
+        SorScanner scanner = new SorScanner();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{sor,SOR}")) {
+            for (Path path : stream) {
+                consumer.accept(scanner.scan(path));
+            }
+        }
+    }
+
+    /**
+     * 扫描目录下所有.sor文件的文件头，无法读取或损坏的文件交给onError后继续扫描
+     *
+     * @param directory 目录
+     * @param consumer  文件头处理
+     * @param onError   单个文件的错误处理
+     */
+    public static void scanDirectory(Path directory, Consumer<SorHeader> consumer,
+                                     BiConsumer<Path, IOException> onError) throws IOException {
+        SorScanner scanner = new SorScanner();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{sor,SOR}")) {
+            for (Path path : stream) {
+                SorHeader header;
+                try {
+                    header = scanner.scan(path);
+                } catch (IOException e) {
+                    onError.accept(path, e);
+                    continue;
+                }
+                consumer.accept(header);
+            }
+        }
+    }
+
+    /**
+     * 扫描单个文件的文件头
+     *
+     * @param path 文件路径
+     * @return 文件头信息
+     */
+    public SorHeader scan(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(path, channel);
+        }
+    }
+
+    /**
+     * 扫描文件通道的文件头
+     *
+     * @param path    文件路径，仅用于记录
+     * @param channel 文件通道
+     * @return 文件头信息
+     */
+    public SorHeader scan(Path path, FileChannel channel) throws IOException {
+        long size = channel.size();
+        int head = read(channel, 0, (int) Math.min(HEAD_LENGTH, size));
+        SorCursor cursor = new SorCursor(buffer);
+        SorMap map;
+        try {
+            cursor.range(0, head);
+            //Map区块长度
+            cursor.skipZString().skip(2);
+            int mapLength = cursor.i32();
+            if (mapLength <= 0 || mapLength > size) {
+                throw new IOException("Map block length " + mapLength + " exceeds file size " + size + ": " + path);
+            }
+            if (mapLength > head) {
+                head = read(channel, 0, mapLength);
+                cursor = new SorCursor(buffer);
+            }
+            cursor.range(0, head);
+            map = new SorMap(cursor);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("corrupt Map block: " + path, e);
+        }
+
+        GenParams genParams = null;
+        SupParams supParams = null;
+        FxdParams fxdParams = null;
+        for (SorBlock block : map.getBlocks()) {
+            int type = block.type();
+            if (type != SorBlockRegistry.GEN_PARAMS && type != SorBlockRegistry.SUP_PARAMS
+                    && type != SorBlockRegistry.FXD_PARAMS) {
+                continue;
+            }
+            int offset = block.getOffset();
+            if (offset < 0 || block.getLength() < 0 || (long) offset + block.getLength() > size) {
+                throw new IOException("block " + block.getBlockId() + " at offset " + offset + " with length "
+                        + block.getLength() + " exceeds file size " + size + ": " + path);
+            }
+            if (offset + block.getLength() > head) {
+                //区块不在已读取的范围内，单独定位读取
+                read(channel, offset, block.getLength());
+                cursor = new SorCursor(buffer);
+                head = 0;
+                offset = 0;
+            }
+            try {
+                cursor.range(offset, block.getLength());
+                switch (type) {
+                    case SorBlockRegistry.GEN_PARAMS:
+                        genParams = new GenParams(cursor);
+                        break;
+                    case SorBlockRegistry.SUP_PARAMS:
+                        supParams = new SupParams(cursor);
+                        break;
+                    default:
+                        fxdParams = new FxdParams(cursor);
+                        break;
+                }
+            } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+                throw new IOException("corrupt block " + block.getBlockId() + " at offset " + block.getOffset()
+                        + ": " + path, e);
+            }
+        }
+        return new SorHeader(path, size, genParams, supParams, fxdParams);
+    }
+
+    /**
+     * 定位读取到内部缓冲区
+     *
+     * @param channel  文件通道
+     * @param position 文件位置
+     * @param length   读取长度
+     * @return 读取长度
+     */
+    private int read(FileChannel channel, long position, int length) throws IOException {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return length;
+    }
+}
@@ -0,0 +1,26 @@
+import java.nio.file.Path;
+
+/**
+ * 批量解析结果接收者
+ * <p>回调在解析线程中执行，实现类需要保证线程安全</p>
+ *
+ * @author coderyong
+ */
+public interface SorSink {
+
+    /**
+     * 文件解析成功
+     *
+     * @param path 文件路径
+     * @param file 解析结果
+     */
+    void onResult(Path path, SorFile file);
+
+    /**
+     * 文件读取或解析失败
+     *
+     * @param path  文件路径
+     * @param error 异常信息
+     */
+    void onError(Path path, Exception error);
+}
@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * OTDR(SOR)流式解析器
+ * <p>不把整个文件读入内存：先读取Map区块，再按文件顺序逐个区块解码并回调{@link SorHandler}：</p>
+ * <ul>
+ * <li>GenParams、SupParams、FxdParams、Cksum等参数区块很小，整块读入缓冲区后解码</li>
+ * <li>KeyEvents、LnkParams逐个事件、地标解码回调，DataPts按分块回调数据点，
+ * 内存占用与事件数、数据点数无关</li>
+ * <li>未知区块直接跳过；跳过和读取的字节都计入校验和，文件结束时回调校验结果</li>
+ * </ul>
+ * <p>缓冲区默认8KB，单个参数区块或单条记录超过缓冲区时缓冲区按需扩大。实例无状态，可以在多个线程中同时使用；
+ * 输入流由调用方关闭。解码由{@link SorReader}完成，本类把拉取的标记转为回调</p>
+ *
+ * @author coderyong
+ * @see OTDRAnalysis#read(InputStream)
+ */
+public final class SorStreamParser {
+
+    private final int bufferSize;
+
+    public SorStreamParser() {
+        this(SorReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize 初始缓冲区字节数，不少于256
+     */
+    public SorStreamParser(int bufferSize) {
+        if (bufferSize < 256) {
+            throw new IllegalArgumentException("bufferSize must be at least 256: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 解析输入流
+     *
+     * @param input   输入流，从当前位置开始解析，不会读取Cksum区块之后的内容
+     * @param handler 回调
+     */
+    public void parse(InputStream input, SorHandler handler) throws IOException {
+        SorReader reader = new SorReader(input, bufferSize);
+        while (true) {
+            switch (reader.next()) {
+                case FILE_START:
+                    handler.startFile(reader.getMap());
+                    break;
+                case BLOCK_START:
+                    handler.startBlock(reader.getBlock());
+                    break;
+                case FIELD:
+                    field(reader, handler);
+                    break;
+                case KEY_EVENT:
+                    handler.keyEvent(reader.getKeyEvent());
+                    break;
+                case LANDMARK:
+                    handler.landmark(reader.getLandmark());
+                    break;
+                case SAMPLES:
+                    handler.samples(reader.getSampleIndex(), reader.getSamples(), reader.getSampleCount(),
+                            reader.getScaleFactor());
+                    break;
+                case BLOCK_END:
+                    handler.endBlock(reader.getBlock());
+                    break;
+                case FILE_END:
+                    handler.endFile(reader.isChecksumValid());
+                    return;
+            }
+        }
+    }
+
+    private static void field(SorReader reader, SorHandler handler) {
+        String name = reader.getFieldName();
+        switch (reader.getFieldType()) {
+            case LONG:
+                handler.field(name, reader.getLong());
+                break;
+            case FLOAT:
+                handler.field(name, reader.getFloat());
+                break;
+            case STRING:
+                handler.field(name, reader.getString());
+                break;
+            case INTS:
+                handler.field(name, reader.getInts());
+                break;
+            case FLOATS:
+                handler.field(name, reader.getFloats());
+                break;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 导出用的文本缓冲写入
+ * <p>整数和定点小数直接按位写入字符缓冲区，不经过装箱和字符串；缓冲区满时写入目标Writer</p>
+ *
+ * @author coderyong
+ */
+final class SorTextWriter {
+
+    private static final long[] POWERS = {1, 10, 100, 1000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private final Writer writer;
+    private final char[] buffer = new char[8 * 1024];
+    private int size;
+
+    SorTextWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    SorTextWriter write(char c) throws IOException {
+        if (size == buffer.length) {
+            flushBuffer();
+        }
+        buffer[size++] = c;
+        return this;
+    }
+
+    SorTextWriter write(String s) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            write(s.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * 写入整数
+     */
+    SorTextWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        if (size + 20 > buffer.length) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /**
+     * 写入定点小数，去掉小数部分末尾的0
+     *
+     * @param value    按10^decimals放大后的整数值
+     * @param decimals 小数位数，0~8
+     */
+    SorTextWriter writeFixed(long value, int decimals) throws IOException {
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        long scale = POWERS[decimals];
+        write(value / scale);
+        long fraction = value % scale;
+        if (fraction != 0) {
+            write('.');
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                decimals--;
+            }
+            for (long digit = POWERS[decimals - 1]; digit > 0; digit /= 10) {
+                write((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 按{@link Float#toString(float)}格式写入浮点数，与Map结果的文本一致
+     */
+    SorTextWriter write(float value) throws IOException {
+        return write(Float.toString(value));
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        writer.write(buffer, 0, size);
+        size = 0;
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OTDR(SOR)文件写入
+ * <p>以解析结果为源文件，替换过的区块重新编码，其余区块(包括DataPts和厂商自定义区块)
+ * 直接从源缓冲区原样拷贝；写入时重新生成Map区块中的区块长度并重新计算校验和</p>
+ *
+ * @author coderyong
+ */
+public class SorWriter {
+
+    private final SorFile source;
+    /** 替换的区块，按区块名称保存 */
+    private final Map<String, Object> replaced = new HashMap<>();
+
+    /**
+     * @param source 源文件解析结果
+     */
+    public SorWriter(SorFile source) {
+        this.source = source;
+    }
+
+    public SorWriter setGenParams(GenParams genParams) {
+        replaced.put("GenParams", genParams);
+        return this;
+    }
+
+    public SorWriter setSupParams(SupParams supParams) {
+        replaced.put("SupParams", supParams);
+        return this;
+    }
+
+    public SorWriter setFxdParams(FxdParams fxdParams) {
+        replaced.put("FxdParams", fxdParams);
+        return this;
+    }
+
+    public SorWriter setKeyEvents(KeyEvents keyEvents) {
+        replaced.put("KeyEvents", keyEvents);
+        return this;
+    }
+
+    public SorWriter setLnkParams(LnkParams lnkParams) {
+        replaced.put("LnkParams", lnkParams);
+        return this;
+    }
+
+    public SorWriter setDataPoints(DataPoints dataPoints) {
+        replaced.put("DataPts", dataPoints);
+        return this;
+    }
+
+    /**
+     * 写入文件，已存在的文件将被替换
+     * <p>源文件可能是同一路径的内存映射，因此先在内存中生成完整内容，写入同目录的临时文件后再原子替换目标文件；
+     * 写入失败时目标文件保持不变</p>
+     *
+     * @param path 文件路径，可以是源文件本身
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(toByteArray());
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling("." + target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 写入字节数组
+     *
+     * @return 文件字节内容
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(Channels.newChannel(out));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入通道
+     *
+     * @param channel 目标通道
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        for (ByteBuffer piece : encode()) {
+            while (piece.hasRemaining()) {
+                channel.write(piece);
+            }
+        }
+    }
+
+    /**
+     * 按文件顺序生成各部分内容
+     *
+     * @return Map区块及其余各区块内容
+     */
+    private List<ByteBuffer> encode() {
+        SorMap map = source.getMap();
+        List<SorBlock> blocks = map.getBlocks();
+        List<ByteBuffer> pieces = new ArrayList<>(blocks.size() + 1);
+        pieces.add(null);
+
+        //编码替换过的区块，其余区块引用源缓冲区
+        SorEncoder out = new SorEncoder(256);
+        int mapLength = map.getBlockId().getBytes().length + 1 + 2 + 4 + 2;
+        int checksumIndex = -1;
+        for (SorBlock block : blocks) {
+            String blockId = block.getBlockId();
+            mapLength += blockId.getBytes().length + 1 + 2 + 4;
+            Object value = replaced.get(blockId);
+            if ("Cksum".equals(blockId) && checksumIndex < 0) {
+                checksumIndex = pieces.size();
+                out.reset();
+                out.zString(blockId).u16(0);
+                pieces.add(ByteBuffer.wrap(out.toByteArray()));
+            } else if (value != null) {
+                out.reset();
+                out.zString(blockId);
+                encode(value, out);
+                pieces.add(ByteBuffer.wrap(out.toByteArray()));
+            } else {
+                pieces.add(source.slice(block));
+            }
+        }
+
+        //重新生成Map区块
+        out.reset();
+        out.zString(map.getBlockId()).u16(map.getVersion()).i32(mapLength).u16(blocks.size() + 1);
+        for (int i = 0; i < blocks.size(); i++) {
+            SorBlock block = blocks.get(i);
+            out.zString(block.getBlockId()).u16(block.getVersion()).i32(pieces.get(i + 1).remaining());
+        }
+        pieces.set(0, ByteBuffer.wrap(out.toByteArray()));
+
+        //重新计算校验和
+        if (checksumIndex > 0) {
+            int crc = Crc16.INITIAL;
+            for (int i = 0; i < checksumIndex; i++) {
+                ByteBuffer piece = pieces.get(i);
+                crc = Crc16.update(crc, piece, piece.position(), piece.remaining());
+            }
+            ByteBuffer checksum = pieces.get(checksumIndex);
+            int length = checksum.remaining() - 2;
+            crc = Crc16.update(crc, checksum, 0, length) ^ Crc16.XOR_OUT;
+            checksum.put(length, (byte) crc).put(length + 1, (byte) (crc >>> 8));
+        }
+        return pieces;
+    }
+
+    /**
+     * 编码类型化区块内容
+     *
+     * @param value 区块对象
+     * @param out   写入缓冲区
+     */
+    private static void encode(Object value, SorEncoder out) {
+        if (value instanceof GenParams) {
+            ((GenParams) value).write(out);
+        } else if (value instanceof SupParams) {
+            ((SupParams) value).write(out);
+        } else if (value instanceof FxdParams) {
+            ((FxdParams) value).write(out);
+        } else if (value instanceof KeyEvents) {
+            ((KeyEvents) value).write(out);
+        } else if (value instanceof LnkParams) {
+            ((LnkParams) value).write(out);
+        } else if (value instanceof DataPoints) {
+            ((DataPoints) value).write(out);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * 供应商参数块
+ *
+ * @author coderyong
+ */
+public final class SupParams {
+
+    /** 供应商名称 */
+    private final String supplierName;
+    /** OTDR主机编号 */
+    private final String mainframeId;
+    /** OTDR主机序列号 */
+    private final String mainframeSOrN;
+    /** 光模块编号 */
+    private final String opticalModuleId;
+    /** 光模块序列号 */
+    private final String opticalModuleSOrN;
+    /** 软件版本 */
+    private final String softwareRevision;
+    /** 其它信息 */
+    private final String other;
+
+    SupParams(SorCursor cursor) {
+        cursor.skipZString();
+        supplierName = cursor.zString();
+        mainframeId = cursor.zString();
+        mainframeSOrN = cursor.zString();
+        opticalModuleId = cursor.zString();
+        opticalModuleSOrN = cursor.zString();
+        softwareRevision = cursor.zString();
+        other = cursor.zString();
+    }
+
+    private SupParams(Builder builder) {
+        supplierName = builder.supplierName;
+        mainframeId = builder.mainframeId;
+        mainframeSOrN = builder.mainframeSOrN;
+        opticalModuleId = builder.opticalModuleId;
+        opticalModuleSOrN = builder.opticalModuleSOrN;
+        softwareRevision = builder.softwareRevision;
+        other = builder.other;
+    }
+
+    /**
+     * 写入区块内容(不含区块名称)
+     *
+     * @param out 写入缓冲区
+     */
+    void write(SorEncoder out) {
+        out.zString(supplierName).zString(mainframeId).zString(mainframeSOrN).zString(opticalModuleId)
+                .zString(opticalModuleSOrN).zString(softwareRevision).zString(other);
+    }
+
+    /**
+     * 以当前参数为初始值创建构建器，用于修改部分字段
+     *
+     * @return 构建器
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public String getSupplierName() {
+        return supplierName;
+    }
+
+    public String getMainframeId() {
+        return mainframeId;
+    }
+
+    public String getMainframeSOrN() {
+        return mainframeSOrN;
+    }
+
+    public String getOpticalModuleId() {
+        return opticalModuleId;
+    }
+
+    public String getOpticalModuleSOrN() {
+        return opticalModuleSOrN;
+    }
+
+    public String getSoftwareRevision() {
+        return softwareRevision;
+    }
+
+    public String getOther() {
+        return other;
+    }
+
+    /**
+     * 供应商参数块构建器
+     */
+    public static final class Builder {
+
+        private String supplierName;
+        private String mainframeId;
+        private String mainframeSOrN;
+        private String opticalModuleId;
+        private String opticalModuleSOrN;
+        private String softwareRevision;
+        private String other;
+
+        private Builder(SupParams params) {
+            supplierName = params.supplierName;
+            mainframeId = params.mainframeId;
+            mainframeSOrN = params.mainframeSOrN;
+            opticalModuleId = params.opticalModuleId;
+            opticalModuleSOrN = params.opticalModuleSOrN;
+            softwareRevision = params.softwareRevision;
+            other = params.other;
+        }
+
+        public Builder setSupplierName(String supplierName) {
+            this.supplierName = supplierName;
+            return this;
+        }
+
+        public Builder setMainframeId(String mainframeId) {
+            this.mainframeId = mainframeId;
+            return this;
+        }
+
+        public Builder setMainframeSOrN(String mainframeSOrN) {
+            this.mainframeSOrN = mainframeSOrN;
+            return this;
+        }
+
+        public Builder setOpticalModuleId(String opticalModuleId) {
+            this.opticalModuleId = opticalModuleId;
+            return this;
+        }
+
+        public Builder setOpticalModuleSOrN(String opticalModuleSOrN) {
+            this.opticalModuleSOrN = opticalModuleSOrN;
+            return this;
+        }
+
+        public Builder setSoftwareRevision(String softwareRevision) {
+            this.softwareRevision = softwareRevision;
+            return this;
+        }
+
+        public Builder setOther(String other) {
+            this.other = other;
+            return this;
+        }
+
+        public SupParams build() {
+            return new SupParams(this);
+        }
+    }
+}
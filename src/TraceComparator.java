@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准曲线比较
+ * <p>把同一光纤(GenParams的光缆编号、光纤编号和波长相同)的当前曲线与基准曲线逐点相减，
+ * 报告差值超过阈值的连续区域，用于发现新增损耗或断纤：</p>
+ * <ul>
+ * <li>两条曲线的数据点间隔、采集偏移相同时直接按序号相减，否则按距离把当前曲线线性插值到基准曲线的数据点上</li>
+ * <li>只比较两条曲线在距离上重叠的部分，差值为当前减基准，负值表示损耗增加</li>
+ * <li>符号相同且连续超过阈值的数据点为一个区域，短于最小点数的区域忽略</li>
+ * </ul>
+ * <p>dB换算使用实例内的缓冲区，比较时除结果对象外不分配与数据点数相关的内存。
+ * 实例不是线程安全的，并发比较时每个线程使用各自的实例</p>
+ *
+ * @author coderyong
+ */
+public final class TraceComparator {
+
+    /** 判定为插值位置与数据点重合的误差(数据点) */
+    private static final double ALIGNED = 1e-6;
+
+    /** 差值阈值(dB) */
+    private final float threshold;
+    /** 区域的最小数据点数 */
+    private final int minPoints;
+    /** 基准曲线的dB值 */
+    private float[] baselineDb = new float[0];
+    /** 当前曲线的dB值 */
+    private float[] currentDb = new float[0];
+    /** 未指定输出数组时使用的差值缓冲区 */
+    private float[] difference = new float[0];
+
+    /**
+     * @param threshold 差值阈值(dB)
+     */
+    public TraceComparator(float threshold) {
+        this(threshold, 1);
+    }
+
+    /**
+     * @param threshold 差值阈值(dB)
+     * @param minPoints 区域的最小数据点数，用于忽略曲线末端噪声造成的零散超限
+     */
+    public TraceComparator(float threshold, int minPoints) {
+        if (!(threshold > 0)) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        if (minPoints < 1) {
+            throw new IllegalArgumentException("minPoints must be at least 1: " + minPoints);
+        }
+        this.threshold = threshold;
+        this.minPoints = minPoints;
+    }
+
+    /**
+     * 光纤标识，光缆编号、光纤编号和波长都相同的曲线可以互相比较
+     *
+     * @param file 解析结果，需包含GenParams区块
+     * @return 标识
+     */
+    public static String fiberKey(SorFile file) {
+        GenParams gen = file.getGenParams();
+        if (gen == null) {
+            throw new IllegalArgumentException("GenParams is required");
+        }
+        return gen.getCableId() + '\0' + gen.getFiberId() + '\0' + gen.getWavelength();
+    }
+
+    /**
+     * 比较两条曲线
+     *
+     * @param baseline 基准曲线，需包含GenParams、FxdParams和DataPts区块
+     * @param current  当前曲线，需包含GenParams、FxdParams和DataPts区块
+     * @return 比较结果
+     */
+    public TraceComparison compare(SorFile baseline, SorFile current) {
+        return compare(baseline, current, null);
+    }
+
+    /**
+     * 比较两条曲线并输出差值曲线
+     *
+     * @param baseline 基准曲线，需包含GenParams、FxdParams和DataPts区块
+     * @param current  当前曲线，需包含GenParams、FxdParams和DataPts区块
+     * @param out      差值曲线(dB，当前减基准)，按基准曲线的数据点排列，长度不小于基准曲线的数据点数，
+     *                 不重叠的数据点为NaN；为null时不输出
+     * @return 比较结果
+     */
+    public TraceComparison compare(SorFile baseline, SorFile current, float[] out) {
+        String key = fiberKey(baseline);
+        if (!key.equals(fiberKey(current))) {
+            throw new IllegalArgumentException("different fibers: " + key.replace('\0', '/')
+                    + " and " + fiberKey(current).replace('\0', '/'));
+        }
+        DistanceAxis baselineAxis = DistanceAxis.of(baseline);
+        DistanceAxis currentAxis = DistanceAxis.of(current);
+        int n = baselineAxis.size();
+        int m = currentAxis.size();
+        if (out != null && out.length < n) {
+            throw new IndexOutOfBoundsException("output " + out.length + ", points " + n);
+        }
+        float[] diff = out;
+        if (diff == null) {
+            diff = difference = grow(difference, n);
+        }
+        float[] base = baselineDb = grow(baselineDb, n);
+        float[] cur = currentDb = grow(currentDb, m);
+        baseline.getDataPoints().toDb(base, 0);
+        current.getDataPoints().toDb(cur, 0);
+
+        //基准曲线第i个数据点在当前曲线上的位置为x0 + step × i
+        double x0 = currentAxis.kmToPoint(baselineAxis.pointToKm(0));
+        double step = currentAxis.kmToPoint(baselineAxis.pointToKm(1)) - x0;
+        int from;
+        int to;
+        long shift = Math.round(x0);
+        if (Math.abs(step - 1) < ALIGNED && Math.abs(x0 - shift) < ALIGNED) {
+            from = (int) Math.max(0, -shift);
+            to = (int) Math.max(from, Math.min(n, m - shift));
+            int offset = (int) shift;
+            for (int i = from; i < to; i++) {
+                diff[i] = cur[i + offset] - base[i];
+            }
+        } else {
+            from = (int) Math.max(0, Math.min(n, Math.ceil(-x0 / step)));
+            to = (int) Math.max(from, Math.min(n, Math.floor((m - 1 - x0) / step) + 1));
+            int last = Math.max(0, m - 2);
+            for (int i = from; i < to; i++) {
+                double x = x0 + step * i;
+                int j = Math.min((int) x, last);
+                double fraction = x - j;
+                double value = m > 1 ? cur[j] + (cur[j + 1] - cur[j]) * fraction : cur[0];
+                diff[i] = (float) (value - base[i]);
+            }
+        }
+        if (out != null) {
+            Arrays.fill(out, 0, from, Float.NaN);
+            Arrays.fill(out, to, n, Float.NaN);
+        }
+
+        GenParams gen = baseline.getGenParams();
+        return new TraceComparison(gen.getCableId(), gen.getFiberId(), gen.getWavelength(), from, to,
+                deviations(diff, from, to, baselineAxis));
+    }
+
+    /**
+     * 查找超过阈值的区域
+     */
+    private List<TraceDeviation> deviations(float[] diff, int from, int to, DistanceAxis axis) {
+        List<TraceDeviation> deviations = new ArrayList<>();
+        int start = -1;
+        boolean negative = false;
+        int peakIndex = 0;
+        float peak = 0;
+        for (int i = from; i < to; i++) {
+            float value = diff[i];
+            boolean over = value >= threshold || value <= -threshold;
+            if (start >= 0 && (!over || value < 0 != negative)) {
+                add(deviations, axis, start, i, peakIndex, peak);
+                start = -1;
+            }
+            if (!over) {
+                continue;
+            }
+            if (start < 0) {
+                start = i;
+                negative = value < 0;
+                peakIndex = i;
+                peak = value;
+            } else if (Math.abs(value) > Math.abs(peak)) {
+                peakIndex = i;
+                peak = value;
+            }
+        }
+        if (start >= 0) {
+            add(deviations, axis, start, to, peakIndex, peak);
+        }
+        return deviations;
+    }
+
+    private void add(List<TraceDeviation> deviations, DistanceAxis axis, int start, int end, int peakIndex, float peak) {
+        if (end - start >= minPoints) {
+            deviations.add(new TraceDeviation(start, end, axis.pointToKm(start), axis.pointToKm(end - 1),
+                    peakIndex, peak));
+        }
+    }
+
+    private static float[] grow(float[] buffer, int size) {
+        return buffer.length >= size ? buffer : new float[size];
+    }
+}
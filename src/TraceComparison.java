@@ -0,0 +1,82 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 当前曲线与基准曲线的比较结果
+ *
+ * @author coderyong
+ * @see TraceComparator
+ */
+public final class TraceComparison {
+
+    private final String cableId;
+    private final String fiberId;
+    private final int wavelength;
+    /** 参与比较的起始数据点序号(基准曲线，含) */
+    private final int from;
+    /** 参与比较的结束数据点序号(基准曲线，不含) */
+    private final int to;
+    /** 超过阈值的区域 */
+    private final List<TraceDeviation> deviations;
+
+    TraceComparison(String cableId, String fiberId, int wavelength, int from, int to, List<TraceDeviation> deviations) {
+        this.cableId = cableId;
+        this.fiberId = fiberId;
+        this.wavelength = wavelength;
+        this.from = from;
+        this.to = to;
+        this.deviations = Collections.unmodifiableList(deviations);
+    }
+
+    public String getCableId() {
+        return cableId;
+    }
+
+    public String getFiberId() {
+        return fiberId;
+    }
+
+    public int getWavelength() {
+        return wavelength;
+    }
+
+    /**
+     * 两条曲线重叠部分的起始数据点序号(基准曲线，含)
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * 两条曲线重叠部分的结束数据点序号(基准曲线，不含)
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * 按距离排序的超过阈值的区域
+     */
+    public List<TraceDeviation> getDeviations() {
+        return deviations;
+    }
+
+    /**
+     * 是否有超过阈值的区域
+     */
+    public boolean isChanged() {
+        return !deviations.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "TraceComparison{" +
+                "cableId='" + cableId + '\'' +
+                ", fiberId='" + fiberId + '\'' +
+                ", wavelength=" + wavelength +
+                ", from=" + from +
+                ", to=" + to +
+                ", deviations=" + deviations +
+                '}';
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+
+/**
+ * 曲线抽稀
+ * <p>把数万至数十万个数据点压缩为指定数量的显示点，耗时与数据点数成正比：</p>
+ * <ul>
+ * <li>{@link #minMax}：按距离等分为若干桶，每桶保留最小值和最大值，反射峰和衰减台阶一定会保留</li>
+ * <li>{@link #lttb}：Largest-Triangle-Three-Buckets，每桶保留与相邻桶构成最大三角形的点，
+ * 曲线形状更平滑，反射峰所在桶的三角形面积通常最大，一般也会被选中</li>
+ * </ul>
+ * <p>带距离范围的方法只处理窗口内的数据点，用于缩放显示</p>
+ *
+ * @author coderyong
+ */
+public final class TraceDecimator {
+
+    private TraceDecimator() {
+    }
+
+    /**
+     * 最小值/最大值抽稀整条曲线
+     *
+     * @param file   解析结果，需包含FxdParams和DataPts区块
+     * @param points 显示点数
+     * @return 显示曲线
+     */
+    public static DisplayTrace minMax(SorFile file, int points) {
+        //按点序号取全部数据点，包括前面板偏移之前距离为负的点
+        DistanceAxis axis = DistanceAxis.of(file);
+        float[] db = file.getDataPoints().toDb();
+        return minMax(db, 0, db.length, axis, points);
+    }
+
+    /**
+     * 最小值/最大值抽稀指定距离范围
+     *
+     * @param file   解析结果，需包含FxdParams和DataPts区块
+     * @param fromKm 起始距离(km)
+     * @param toKm   结束距离(km)
+     * @param points 显示点数
+     * @return 显示曲线
+     */
+    public static DisplayTrace minMax(SorFile file, double fromKm, double toKm, int points) {
+        DistanceAxis axis = DistanceAxis.of(file);
+        float[] db = file.getDataPoints().toDb();
+        return minMax(db, from(fromKm, axis), to(toKm, axis), axis, points);
+    }
+
+    /**
+     * LTTB抽稀整条曲线
+     *
+     * @param file   解析结果，需包含FxdParams和DataPts区块
+     * @param points 显示点数
+     * @return 显示曲线
+     */
+    public static DisplayTrace lttb(SorFile file, int points) {
+        //按点序号取全部数据点，包括前面板偏移之前距离为负的点
+        DistanceAxis axis = DistanceAxis.of(file);
+        float[] db = file.getDataPoints().toDb();
+        return lttb(db, 0, db.length, axis, points);
+    }
+
+    /**
+     * LTTB抽稀指定距离范围
+     *
+     * @param file   解析结果，需包含FxdParams和DataPts区块
+     * @param fromKm 起始距离(km)
+     * @param toKm   结束距离(km)
+     * @param points 显示点数
+     * @return 显示曲线
+     */
+    public static DisplayTrace lttb(SorFile file, double fromKm, double toKm, int points) {
+        DistanceAxis axis = DistanceAxis.of(file);
+        float[] db = file.getDataPoints().toDb();
+        return lttb(db, from(fromKm, axis), to(toKm, axis), axis, points);
+    }
+
+    /**
+     * 最小值/最大值抽稀
+     * <p>窗口等分为points/2个桶，每桶按原始顺序输出最小值和最大值；数据点不多于points时原样输出</p>
+     *
+     * @param db         各数据点的dB值
+     * @param from       起始数据点(含)
+     * @param to         结束数据点(不含)
+     * @param axis       数据点的距离换算
+     * @param points     显示点数，不小于2
+     * @return 显示曲线
+     */
+    public static DisplayTrace minMax(float[] db, int from, int to, DistanceAxis axis, int points) {
+        checkRange(db, from, to, axis, points, 2);
+        int length = to - from;
+        if (length <= points) {
+            return copy(db, from, to, axis);
+        }
+        int buckets = points / 2;
+        int[] indexes = new int[buckets * 2];
+        int size = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = from + (int) ((long) length * bucket / buckets);
+            int end = from + (int) ((long) length * (bucket + 1) / buckets);
+            int min = start;
+            int max = start;
+            for (int i = start + 1; i < end; i++) {
+                float value = db[i];
+                if (value < db[min]) {
+                    min = i;
+                } else if (value > db[max]) {
+                    max = i;
+                }
+            }
+            if (min == max) {
+                indexes[size++] = min;
+            } else {
+                indexes[size++] = Math.min(min, max);
+                indexes[size++] = Math.max(min, max);
+            }
+        }
+        return select(db, indexes, size, axis);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets抽稀
+     * <p>保留首尾两点，中间等分为points-2个桶，每桶选取与上一个选中点、下一桶平均点构成最大三角形的点；
+     * 数据点不多于points时原样输出</p>
+     *
+     * @param db         各数据点的dB值
+     * @param from       起始数据点(含)
+     * @param to         结束数据点(不含)
+     * @param axis       数据点的距离换算
+     * @param points     显示点数，不小于3
+     * @return 显示曲线
+     */
+    public static DisplayTrace lttb(float[] db, int from, int to, DistanceAxis axis, int points) {
+        checkRange(db, from, to, axis, points, 3);
+        int length = to - from;
+        if (length <= points) {
+            return copy(db, from, to, axis);
+        }
+        int[] indexes = new int[points];
+        indexes[0] = from;
+        int selected = from;
+        int buckets = points - 2;
+        double bucketSize = (double) (length - 2) / buckets;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = from + 1 + (int) (bucket * bucketSize);
+            int end = from + 1 + (int) ((bucket + 1) * bucketSize);
+
+            //下一桶的平均点，最后一桶使用终点
+            int nextStart = end;
+            int nextEnd = Math.min(from + 1 + (int) ((bucket + 2) * bucketSize), to);
+            if (bucket == buckets - 1) {
+                nextStart = to - 1;
+                nextEnd = to;
+            }
+            double averageX = (nextStart + nextEnd - 1) / 2D;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageY += db[i];
+            }
+            averageY /= nextEnd - nextStart;
+
+            double selectedY = db[selected];
+            double maxArea = -1;
+            int next = start;
+            for (int i = start; i < end; i++) {
+                //三角形面积的两倍，只用于比较
+                double area = Math.abs((selected - averageX) * (db[i] - selectedY)
+                        - (selected - i) * (averageY - selectedY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = i;
+                }
+            }
+            indexes[bucket + 1] = next;
+            selected = next;
+        }
+        indexes[points - 1] = to - 1;
+        return select(db, indexes, points, axis);
+    }
+
+    private static int from(double km, DistanceAxis axis) {
+        return (int) Math.max(0, Math.min(Math.ceil(axis.kmToPoint(km)), axis.size()));
+    }
+
+    private static int to(double km, DistanceAxis axis) {
+        return (int) Math.max(0, Math.min(Math.floor(axis.kmToPoint(km)) + 1, axis.size()));
+    }
+
+    private static void checkRange(float[] db, int from, int to, DistanceAxis axis, int points, int minPoints) {
+        if (from < 0 || to > db.length || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + "), size " + db.length);
+        }
+        if (axis.size() < to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + "), axis size " + axis.size());
+        }
+        if (points < minPoints) {
+            throw new IllegalArgumentException("points must be at least " + minPoints + ": " + points);
+        }
+    }
+
+    private static DisplayTrace copy(float[] db, int from, int to, DistanceAxis axis) {
+        int[] indexes = new int[to - from];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = from + i;
+        }
+        return select(db, indexes, indexes.length, axis);
+    }
+
+    private static DisplayTrace select(float[] db, int[] indexes, int size, DistanceAxis axis) {
+        int[] selected = size == indexes.length ? indexes : Arrays.copyOf(indexes, size);
+        float[] km = axis.axis();
+        float[] distances = new float[size];
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            distances[i] = km[selected[i]];
+            values[i] = db[selected[i]];
+        }
+        return new DisplayTrace(selected, distances, values);
+    }
+}
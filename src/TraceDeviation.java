@@ -0,0 +1,73 @@
+/**
+ * 当前曲线与基准曲线差值超过阈值的一段连续区域
+ *
+ * @author coderyong
+ * @see TraceComparator
+ */
+public final class TraceDeviation {
+
+    /** 起始数据点序号(基准曲线，含) */
+    private final int startIndex;
+    /** 结束数据点序号(基准曲线，不含) */
+    private final int endIndex;
+    /** 起始距离(km) */
+    private final double startKm;
+    /** 结束距离(km) */
+    private final double endKm;
+    /** 偏差最大的数据点序号(基准曲线) */
+    private final int peakIndex;
+    /** 最大偏差(dB)，当前减基准，负值表示损耗增加 */
+    private final float peakDeviation;
+
+    TraceDeviation(int startIndex, int endIndex, double startKm, double endKm, int peakIndex, float peakDeviation) {
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+        this.startKm = startKm;
+        this.endKm = endKm;
+        this.peakIndex = peakIndex;
+        this.peakDeviation = peakDeviation;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    public double getStartKm() {
+        return startKm;
+    }
+
+    public double getEndKm() {
+        return endKm;
+    }
+
+    public int getPeakIndex() {
+        return peakIndex;
+    }
+
+    public float getPeakDeviation() {
+        return peakDeviation;
+    }
+
+    /**
+     * 是否为损耗增加(当前曲线低于基准曲线)
+     */
+    public boolean isLoss() {
+        return peakDeviation < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceDeviation{" +
+                "startIndex=" + startIndex +
+                ", endIndex=" + endIndex +
+                ", startKm=" + String.format("%.3f", startKm) +
+                ", endKm=" + String.format("%.3f", endKm) +
+                ", peakIndex=" + peakIndex +
+                ", peakDeviation=" + peakDeviation +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author coderyong
+ */
+class SorArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rebuildsArchivedFiles() throws Exception {
+        byte[][] contents = {
+                Files.readAllBytes(Paths.get("test.sor")),
+                new SorGenerator(1).setPoints(8 * 1024).setLandmarks(4).setPulses(3).setVendorBlocks(2, 256)
+                        .generate(0),
+                new SorGenerator(2).setPoints(1024).setEvents(0).generate(1)
+        };
+        Path path = directory.resolve("traces.sora");
+        try (SorArchiveWriter writer = new SorArchiveWriter(path)) {
+            for (byte[] content : contents) {
+                writer.add(SorParser.parse(content));
+            }
+        }
+
+        SorArchiveReader reader = new SorArchiveReader(path);
+        assertEquals(contents.length, reader.size());
+        for (int i = 0; i < contents.length; i++) {
+            SorFile rebuilt = reader.get(i).toSorFile();
+            assertArrayEquals(contents[i], new SorWriter(rebuilt).toByteArray(), "trace " + i);
+        }
+    }
+}
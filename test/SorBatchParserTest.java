@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author coderyong
+ */
+class SorBatchParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void iteratorFailureWaitsForSubmittedFiles() throws Exception {
+        Path sample = Files.copy(Paths.get("test.sor"), directory.resolve("trace.sor"));
+        DirectoryIteratorException failure = new DirectoryIteratorException(new IOException("listing failed"));
+        Iterator<Path> paths = new Iterator<Path>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Path next() {
+                if (next++ == 4) {
+                    throw failure;
+                }
+                return sample;
+            }
+        };
+        AtomicInteger results = new AtomicInteger();
+        SorSink sink = new SorSink() {
+            @Override
+            public void onResult(Path path, SorFile file) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                results.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Path path, Exception error) {
+            }
+        };
+
+        Path dump = directory.resolve("batch.jfr");
+        try (Recording recording = new Recording();
+             SorBatchParser parser = new SorBatchParser(2)) {
+            recording.enable("otdr.BatchParsed");
+            recording.start();
+            assertSame(failure, assertThrows(DirectoryIteratorException.class, () -> parser.parse(paths, sink)));
+            //抛出前已提交的文件全部回调完成，之后不再回调
+            assertEquals(4, results.get());
+            Thread.sleep(100);
+            assertEquals(4, results.get());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        events.removeIf(event -> !"otdr.BatchParsed".equals(event.getEventType().getName()));
+        assertEquals(1, events.size());
+        assertEquals(4, events.get(0).getLong("files"));
+        assertEquals(0, events.get(0).getLong("failures"));
+    }
+}
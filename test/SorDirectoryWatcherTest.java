@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author coderyong
+ */
+class SorDirectoryWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rescanAfterOverflowSkipsFilesPresentAtStart() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get("test.sor"));
+        Path existing = Files.write(directory.resolve("existing.sor"), sample);
+        Set<Path> parsed = ConcurrentHashMap.newKeySet();
+        Set<Path> failed = ConcurrentHashMap.newKeySet();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SorSink sink = new SorSink() {
+            @Override
+            public void onResult(Path path, SorFile file) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                parsed.add(path);
+            }
+
+            @Override
+            public void onError(Path path, Exception error) {
+                failed.add(path);
+            }
+        };
+
+        int count = 1000;
+        try (SorDirectoryWatcher watcher = new SorDirectoryWatcher(directory, sink, 1).setQuietMillis(0)) {
+            watcher.start();
+            Files.write(directory.resolve("first.sor"), sample);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            //回调阻塞期间监听线程无法取出事件，大量新文件使事件队列溢出
+            for (int i = 0; i < count; i++) {
+                Files.write(directory.resolve("new-" + i + ".sor"), sample);
+            }
+            release.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (parsed.size() < count + 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(300);
+            assertTrue(watcher.isRunning());
+        }
+
+        assertEquals(count + 1, parsed.size());
+        assertFalse(parsed.contains(existing));
+        assertTrue(failed.isEmpty());
+    }
+}
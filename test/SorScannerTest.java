@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author coderyong
+ */
+class SorScannerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatedFileThrowsIOException() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get("test.sor"));
+        SorBlock fxd = SorParser.parse(sample).getMap().find("FxdParams");
+        SorScanner scanner = new SorScanner();
+        //截断在Map区块内或FxdParams区块中间
+        for (int length : new int[]{0, 3, 20, fxd.getOffset() + fxd.getLength() / 2}) {
+            Path path = Files.write(directory.resolve("truncated-" + length + ".sor"), Arrays.copyOf(sample, length));
+            assertThrows(IOException.class, () -> scanner.scan(path), "length " + length);
+        }
+    }
+
+    @Test
+    void blockLengthPastEndThrowsIOException() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get("test.sor"));
+        SorBlock fxd = SorParser.parse(sample).getMap().find("FxdParams");
+        //FxdParams目录项的长度字段在区块名称和版本号之后
+        int entry = indexOf(sample, "FxdParams\0".getBytes());
+        ByteBuffer.wrap(sample).order(ByteOrder.LITTLE_ENDIAN).putInt(entry + "FxdParams".length() + 1 + 2,
+                sample.length);
+        Path path = Files.write(directory.resolve("corrupt.sor"), sample);
+
+        IOException error = assertThrows(IOException.class, () -> new SorScanner().scan(path));
+        assertTrue(error.getMessage().contains("FxdParams"), error.getMessage());
+        assertTrue(error.getMessage().contains(String.valueOf(fxd.getOffset())), error.getMessage());
+    }
+
+    @Test
+    void directoryScanContinuesAfterCorruptFile() throws Exception {
+        byte[] sample = Files.readAllBytes(Paths.get("test.sor"));
+        Files.write(directory.resolve("a.sor"), sample);
+        Files.write(directory.resolve("b.sor"), Arrays.copyOf(sample, 20));
+        Files.write(directory.resolve("c.sor"), sample);
+        List<SorHeader> headers = new ArrayList<>();
+        List<Path> failed = new ArrayList<>();
+
+        SorScanner.scanDirectory(directory, headers::add, (path, error) -> failed.add(path));
+
+        assertEquals(2, headers.size());
+        assertNotNull(headers.get(0).getFxdParams());
+        assertEquals(Arrays.asList(directory.resolve("b.sor")), failed);
+    }
+
+    private static int indexOf(byte[] content, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= content.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(content, i, i + pattern.length), pattern)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("pattern not found");
+    }
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author coderyong
+ */
+class SorWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rewritesParsedFileInPlace() throws Exception {
+        Path path = directory.resolve("trace.sor");
+        Files.copy(Paths.get("test.sor"), path);
+        byte[] original = Files.readAllBytes(path);
+
+        SorFile file = SorParser.parse(path);
+        GenParams gen = file.getGenParams().toBuilder().setFiberId("F-rewritten").build();
+        new SorWriter(file).setGenParams(gen).write(path);
+
+        SorFile rewritten = SorParser.parse(Files.readAllBytes(path));
+        assertEquals("F-rewritten", rewritten.getGenParams().getFiberId());
+        assertTrue(rewritten.verifyChecksum());
+        assertArrayEquals(SorParser.parse(original).getDataPoints().getRawSamples(),
+                rewritten.getDataPoints().getRawSamples());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void unchangedFileRoundTrips() throws Exception {
+        Path path = directory.resolve("trace.sor");
+        Files.copy(Paths.get("test.sor"), path);
+        byte[] original = Files.readAllBytes(path);
+
+        new SorWriter(SorParser.parse(path)).write(path);
+
+        assertArrayEquals(original, Files.readAllBytes(path));
+    }
+}